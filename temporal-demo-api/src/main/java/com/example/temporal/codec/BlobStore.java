@@ -0,0 +1,40 @@
+package com.example.temporal.codec;
+
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * 大 Payload 的外部存储 (claim-check)
+ * <p>
+ * key 为内容的 SHA-256，同一内容重复写入 (Workflow 重放、Activity 重试) 必须幂等；
+ * Client 与 Worker 需访问同一个存储，否则一端写入的 Payload 另一端无法读取。
+ *
+ * @author 0xNPC
+ */
+public interface BlobStore {
+
+    /**
+     * 合法的 key：64 位小写十六进制 (SHA-256)
+     */
+    Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * key 来自 History 中的 Payload，任何能启动 Workflow 的调用方都能伪造，使用前必须校验
+     */
+    static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    /**
+     * 写入，key 已存在时可直接返回
+     */
+    void put(String key, byte[] data) throws IOException;
+
+    /**
+     * 读取，key 不存在时抛出 {@link java.nio.file.NoSuchFileException} 等 IOException
+     */
+    ByteString get(String key) throws IOException;
+
+}
@@ -0,0 +1,181 @@
+package com.example.temporal.codec;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.PayloadCodecException;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Claim-check 编解码：大 Payload 写入 {@link BlobStore}，History 中只保留引用
+ * <p>
+ * 序列化后不小于 thresholdBytes 的 Payload 以内容 SHA-256 为 key 写入存储，替换为 binary/claim-check 编码的引用
+ * (data 为 key)；放在编解码链的最外层 (列表首位)，即先压缩、压缩后仍超过阈值才转存。
+ * 解码是惰性的：只有 Payload 真正被转换时 (getResult、Activity 入参等) 才读取存储，describe 等不解码 Payload 的调用不受影响；
+ * 读取结果按内容寻址缓存在本地 (总字节数不超过 cacheMaxBytes 的 LRU)，写入的 Payload 也会放入缓存，
+ * 同一进程随后读取 (如 Worker 上 Activity 结果回到 Workflow) 不再访问存储。
+ * 解码总是生效，因此 Client 与 Worker 可分批开启。
+ *
+ * @author 0xNPC
+ */
+public class ClaimCheckPayloadCodec implements PayloadCodec {
+
+    static final ByteString METADATA_ENCODING_CLAIM_CHECK = ByteString.copyFromUtf8("binary/claim-check");
+
+    /**
+     * 原始 Payload 的字节数，便于在 UI / History 中判断被转存的内容大小
+     */
+    static final String METADATA_SIZE_KEY = "claim-check-size";
+
+    private final boolean enabled;
+
+    private final int thresholdBytes;
+
+    private final long cacheMaxBytes;
+
+    private final BlobStore blobStore;
+
+    /**
+     * key -> 原始 Payload，访问顺序即 LRU 顺序
+     */
+    private final LinkedHashMap<String, Payload> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long cachedBytes;
+
+    private final LongAdder offloadedPayloads = new LongAdder();
+
+    private final LongAdder offloadedBytes = new LongAdder();
+
+    private final LongAdder cacheHits = new LongAdder();
+
+    private final LongAdder storeReads = new LongAdder();
+
+    private final LongAdder storeReadBytes = new LongAdder();
+
+    /**
+     * @param enabled        是否转存（false 时只解码）
+     * @param thresholdBytes 转存阈值，小于该大小的 Payload 保留在 History 中
+     * @param cacheMaxBytes  本地缓存的最大字节数，0 表示不缓存
+     * @param blobStore      外部存储
+     */
+    public ClaimCheckPayloadCodec(boolean enabled, int thresholdBytes, long cacheMaxBytes, BlobStore blobStore) {
+        this.enabled = enabled;
+        this.thresholdBytes = thresholdBytes;
+        this.cacheMaxBytes = cacheMaxBytes;
+        this.blobStore = blobStore;
+    }
+
+    @Nonnull
+    @Override
+    public List<Payload> encode(@Nonnull List<Payload> payloads) {
+        if (!enabled) {
+            return payloads;
+        }
+        return payloads.stream().map(this::encodePayload).toList();
+    }
+
+    @Nonnull
+    @Override
+    public List<Payload> decode(@Nonnull List<Payload> payloads) {
+        return payloads.stream().map(this::decodePayload).toList();
+    }
+
+    private Payload encodePayload(Payload payload) {
+        int size = payload.getSerializedSize();
+        if (size < thresholdBytes) {
+            return payload;
+        }
+        byte[] data = payload.toByteArray();
+        String key = sha256(data);
+        try {
+            blobStore.put(key, data);
+        } catch (IOException e) {
+            throw new PayloadCodecException(e);
+        }
+        offloadedPayloads.increment();
+        offloadedBytes.add(size);
+        cachePut(key, payload);
+        return Payload.newBuilder()
+                .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, METADATA_ENCODING_CLAIM_CHECK)
+                .putMetadata(METADATA_SIZE_KEY, ByteString.copyFromUtf8(String.valueOf(size)))
+                .setData(ByteString.copyFromUtf8(key))
+                .build();
+    }
+
+    private Payload decodePayload(Payload payload) {
+        if (!METADATA_ENCODING_CLAIM_CHECK.equals(payload.getMetadataOrDefault(EncodingKeys.METADATA_ENCODING_KEY, null))) {
+            // 未转存的 Payload
+            return payload;
+        }
+        String key = payload.getData().toStringUtf8();
+        if (!BlobStore.isValidKey(key)) {
+            // key 来自 History，可被伪造 (如 ../../etc/passwd)，不能直接交给存储
+            throw new PayloadCodecException("非法的转存 Payload key");
+        }
+        Payload cached = cacheGet(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        try {
+            ByteString data = blobStore.get(key);
+            storeReads.increment();
+            storeReadBytes.add(data.size());
+            Payload original = Payload.parseFrom(data);
+            cachePut(key, original);
+            return original;
+        } catch (IOException e) {
+            throw new PayloadCodecException("读取转存的 Payload 失败: " + key, e);
+        }
+    }
+
+    private synchronized Payload cacheGet(String key) {
+        return cache.get(key);
+    }
+
+    private synchronized void cachePut(String key, Payload payload) {
+        long size = payload.getSerializedSize();
+        if (size > cacheMaxBytes || cache.containsKey(key)) {
+            return;
+        }
+        cache.put(key, payload);
+        cachedBytes += size;
+        Iterator<Map.Entry<String, Payload>> iterator = cache.entrySet().iterator();
+        while (cachedBytes > cacheMaxBytes && iterator.hasNext()) {
+            cachedBytes -= iterator.next().getValue().getSerializedSize();
+            iterator.remove();
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 当前统计快照
+     */
+    public ClaimCheckStats stats() {
+        long cached;
+        synchronized (this) {
+            cached = cachedBytes;
+        }
+        return new ClaimCheckStats(offloadedPayloads.sum(), offloadedBytes.sum(), cacheHits.sum(), storeReads.sum(),
+                storeReadBytes.sum(), cached);
+    }
+
+}
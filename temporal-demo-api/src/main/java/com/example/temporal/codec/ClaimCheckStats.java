@@ -0,0 +1,24 @@
+package com.example.temporal.codec;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Claim-check 统计
+ *
+ * @author 0xNPC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimCheckStats {
+
+    private long offloadedPayloads;     // 写入外部存储的 Payload 数
+    private long offloadedBytes;        // 写入外部存储的字节数
+    private long cacheHits;             // 解码时命中本地缓存的次数
+    private long storeReads;            // 解码时读取外部存储的次数
+    private long storeReadBytes;        // 从外部存储读取的字节数
+    private long cachedBytes;           // 本地缓存当前占用的字节数
+
+}
@@ -0,0 +1,25 @@
+package com.example.temporal.codec;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload 压缩统计
+ *
+ * @author 0xNPC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodecStats {
+
+    private long compressedPayloads;    // 已压缩的 Payload 数
+    private long skippedPayloads;       // 因过小或压缩率不足而跳过的 Payload 数
+    private long bytesBefore;           // 压缩前总字节数（仅统计已压缩的 Payload）
+    private long bytesAfter;            // 压缩后总字节数
+    private long bytesSaved;            // 节省的字节数
+    private long encodeTimeMs;          // 压缩累计耗时
+    private long decodeTimeMs;          // 解压累计耗时
+
+}
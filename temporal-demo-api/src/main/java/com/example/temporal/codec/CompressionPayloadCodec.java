@@ -0,0 +1,138 @@
+package com.example.temporal.codec;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.PayloadCodecException;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Payload 压缩编解码
+ * <p>
+ * 仅压缩序列化后不小于 thresholdBytes 的 Payload，且压缩率不低于 maxRatio 时才采用压缩结果；
+ * 编码格式与 SDK 自带的 ZlibPayloadCodec 一致 (binary/zlib)，两者可互相解码。
+ * 解码总是生效，因此 Client 与 Worker 可分批开启压缩。
+ *
+ * @author 0xNPC
+ */
+public class CompressionPayloadCodec implements PayloadCodec {
+
+    static final ByteString METADATA_ENCODING_ZLIB = ByteString.copyFromUtf8("binary/zlib");
+
+    private final boolean enabled;
+
+    private final int thresholdBytes;
+
+    private final double maxRatio;
+
+    private final int level;
+
+    private final LongAdder compressedCount = new LongAdder();
+
+    private final LongAdder skippedCount = new LongAdder();
+
+    private final LongAdder bytesBefore = new LongAdder();
+
+    private final LongAdder bytesAfter = new LongAdder();
+
+    private final LongAdder encodeNanos = new LongAdder();
+
+    private final LongAdder decodeNanos = new LongAdder();
+
+    /**
+     * @param enabled        是否压缩（false 时只解码）
+     * @param thresholdBytes 压缩阈值，小于该大小的 Payload 不压缩
+     * @param maxRatio       压缩后/压缩前 的最大比例，超过则放弃压缩结果
+     * @param level          压缩级别，见 {@link Deflater}
+     */
+    public CompressionPayloadCodec(boolean enabled, int thresholdBytes, double maxRatio, int level) {
+        this.enabled = enabled;
+        this.thresholdBytes = thresholdBytes;
+        this.maxRatio = maxRatio;
+        this.level = level;
+    }
+
+    @Nonnull
+    @Override
+    public List<Payload> encode(@Nonnull List<Payload> payloads) {
+        if (!enabled) {
+            return payloads;
+        }
+        return payloads.stream().map(this::encodePayload).toList();
+    }
+
+    @Nonnull
+    @Override
+    public List<Payload> decode(@Nonnull List<Payload> payloads) {
+        return payloads.stream().map(this::decodePayload).toList();
+    }
+
+    private Payload encodePayload(Payload payload) {
+        int inputSize = payload.getSerializedSize();
+        if (inputSize < thresholdBytes) {
+            skippedCount.increment();
+            return payload;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] input = payload.toByteArray();
+            // 输出缓冲只给到允许的最大长度，压缩不到该比例时 deflate 写不完，直接放弃
+            int limit = (int) (inputSize * maxRatio);
+            byte[] output = new byte[limit + 1];
+            Deflater deflater = new Deflater(level);
+            try {
+                deflater.setInput(input);
+                deflater.finish();
+                int length = deflater.deflate(output);
+                if (!deflater.finished() || length > limit) {
+                    skippedCount.increment();
+                    return payload;
+                }
+                compressedCount.increment();
+                bytesBefore.add(inputSize);
+                bytesAfter.add(length);
+                return Payload.newBuilder()
+                        .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, METADATA_ENCODING_ZLIB)
+                        .setData(ByteString.copyFrom(output, 0, length))
+                        .build();
+            } finally {
+                deflater.end();
+            }
+        } finally {
+            encodeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private Payload decodePayload(Payload payload) {
+        if (!METADATA_ENCODING_ZLIB.equals(payload.getMetadataOrDefault(EncodingKeys.METADATA_ENCODING_KEY, null))) {
+            // 不是本编解码器压缩的 Payload
+            return payload;
+        }
+        long start = System.nanoTime();
+        try (InflaterInputStream in = new InflaterInputStream(payload.getData().newInput())) {
+            return Payload.parseFrom(in);
+        } catch (IOException e) {
+            throw new PayloadCodecException(e);
+        } finally {
+            decodeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 当前统计快照
+     */
+    public CodecStats stats() {
+        long before = bytesBefore.sum();
+        long after = bytesAfter.sum();
+        return new CodecStats(compressedCount.sum(), skippedCount.sum(), before, after, before - after,
+                encodeNanos.sum() / 1_000_000, decodeNanos.sum() / 1_000_000);
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.example.temporal.codec;
+
+import io.temporal.common.converter.CodecDataConverter;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.common.converter.PayloadConverter;
+import io.temporal.payload.codec.PayloadCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DataConverter 组装，Client 与 Worker 共用，保证两端编解码一致
+ *
+ * @author 0xNPC
+ */
+public final class DataConverters {
+
+    private DataConverters() {
+    }
+
+    /**
+     * @param modelConverter 模型类二进制转换器，放在 JSON 转换器之前
+     * @param codecs         Payload 编解码链（压缩等）
+     */
+    public static DataConverter newDataConverter(ModelBinaryPayloadConverter modelConverter, List<PayloadCodec> codecs) {
+        // 转换器按顺序尝试，第一个能处理的生效；JSON 能处理任意对象，因此必须排在最后
+        List<PayloadConverter> converters = new ArrayList<>(Arrays.asList(DefaultDataConverter.STANDARD_PAYLOAD_CONVERTERS));
+        converters.add(converters.size() - 1, modelConverter);
+        DataConverter dataConverter = new DefaultDataConverter(converters.toArray(new PayloadConverter[0]));
+        return codecs.isEmpty() ? dataConverter : new CodecDataConverter(dataConverter, codecs);
+    }
+
+}
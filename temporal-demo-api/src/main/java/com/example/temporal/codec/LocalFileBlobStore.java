@@ -0,0 +1,73 @@
+package com.example.temporal.codec;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * 本地文件系统实现的 {@link BlobStore}，不依赖外部服务，便于测试；多进程部署时目录需共享 (如 NFS / PVC)
+ * <p>
+ * 文件按 key 前两位分目录存放，先写临时文件再原子改名，读取端不会看到写了一半的文件。
+ * 只接受 SHA-256 形式的 key，解析后的路径必须位于 root 下，防止伪造的 key 读写任意文件。
+ * 读取以只读方式 mmap 文件并直接包装为 ByteString，不复制到堆内，页面在实际访问时才由内核加载。
+ *
+ * @author 0xNPC
+ */
+public class LocalFileBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalFileBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, byte[] data) throws IOException {
+        Path path = resolve(key);
+        if (Files.exists(path)) {
+            // 内容寻址，已存在即内容相同
+            return;
+        }
+        Files.createDirectories(path.getParent());
+        // 不用 createTempFile：其权限固定为 0600，Server 与 Worker 以不同用户运行时对方无法读取
+        Path temp = path.resolveSibling(key + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // 并发写入同一内容，以先完成的为准
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public ByteString get(String key) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            // 映射在通道关闭后仍然有效，随 ByteString 被回收而释放
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return UnsafeByteOperations.unsafeWrap(buffer);
+        }
+    }
+
+    private Path resolve(String key) {
+        if (!BlobStore.isValidKey(key)) {
+            throw new IllegalArgumentException("非法的 blob key");
+        }
+        Path path = root.resolve(key.substring(0, 2)).resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("blob 路径超出存储目录: " + key);
+        }
+        return path;
+    }
+
+}
@@ -0,0 +1,314 @@
+package com.example.temporal.codec;
+
+import com.example.temporal.model.BatchTaskInput;
+import com.example.temporal.model.BatchTaskResult;
+import com.example.temporal.model.TaskArgs;
+import com.example.temporal.model.TaskProgress;
+import com.example.temporal.model.TaskStatus;
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DataConverterException;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.common.converter.PayloadConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 模型类的紧凑二进制序列化
+ * <p>
+ * 只处理 com.example.temporal.model 下的固定几个类，其余类型返回 empty 交给后续的 JSON 转换器。
+ * 反序列化按 Payload 的 encoding 选择转换器，因此历史中已有的 JSON Payload 仍由 JSON 转换器读取；
+ * 关闭 enabled 时只读不写，便于 Client 与 Worker 分批切换。
+ * <p>
+ * 格式：1 字节类型标记 + 1 字节该类型的版本 + 各字段（可空字段前置 1 字节是否存在）。
+ * 字段只在末尾追加，追加时只递增该类型的版本：读取端兼容旧版本，遇到更新的版本时读取已知字段、忽略末尾的新字段，
+ * 因此滚动发布期间新旧进程可以互相读取。例外是 BatchTaskInput：内嵌的 TaskArgs 没有长度前缀，无法跳过未知字段，
+ * 其版本随 TaskArgs 一起递增，读取端遇到更新的版本时报错，发布时需先升级全部 Worker，再升级 Server。
+ * <ul>
+ *     <li>TaskArgs / BatchTaskInput 版本 2：TaskArgs 末尾追加 heartbeatTimeout</li>
+ *     <li>TaskArgs / BatchTaskInput 版本 3：TaskArgs 末尾追加 resultCacheTtl</li>
+ *     <li>TaskStatus、BatchTaskResult、TaskProgress：版本 1 (早期写出的 2、3 与之格式相同)</li>
+ * </ul>
+ *
+ * @author 0xNPC
+ */
+public class ModelBinaryPayloadConverter implements PayloadConverter {
+
+    public static final String ENCODING = "binary/x-demo-model";
+
+    private static final ByteString ENCODING_BYTES = ByteString.copyFromUtf8(ENCODING);
+
+    private static final byte TYPE_TASK_ARGS = 1;
+
+    private static final byte TYPE_TASK_STATUS = 2;
+
+    private static final byte TYPE_BATCH_TASK_INPUT = 3;
+
+    private static final byte TYPE_BATCH_TASK_RESULT = 4;
+
+    private static final byte TYPE_TASK_PROGRESS = 5;
+
+    private static final byte TASK_ARGS_VERSION = 3;
+
+    /**
+     * 与 TaskArgs 的版本保持一致，内嵌的 TaskArgs 按该版本读取
+     */
+    private static final byte BATCH_TASK_INPUT_VERSION = TASK_ARGS_VERSION;
+
+    private static final byte TASK_STATUS_VERSION = 1;
+
+    private static final byte BATCH_TASK_RESULT_VERSION = 1;
+
+    private static final byte TASK_PROGRESS_VERSION = 1;
+
+    private final boolean enabled;
+
+    /**
+     * @param enabled 是否用二进制格式写出；false 时只负责读取
+     */
+    public ModelBinaryPayloadConverter(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String getEncodingType() {
+        return ENCODING;
+    }
+
+    @Override
+    public Optional<Payload> toData(Object value) throws DataConverterException {
+        if (!enabled || !isSupported(value)) {
+            return Optional.empty();
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(buffer);
+            writeModel(out, value);
+            out.flush();
+            return Optional.of(Payload.newBuilder()
+                    .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ENCODING_BYTES)
+                    .setData(ByteString.copyFrom(buffer.toByteArray()))
+                    .build());
+        } catch (IOException e) {
+            throw new DataConverterException(e);
+        }
+    }
+
+    @Override
+    public <T> T fromData(Payload content, Class<T> valueType, Type valueGenericType) throws DataConverterException {
+        try (DataInputStream in = new DataInputStream(content.getData().newInput())) {
+            Object value = readModel(in);
+            if (!valueType.isInstance(value)) {
+                throw new DataConverterException("二进制 Payload 类型不匹配: " + value.getClass().getName()
+                        + " -> " + valueType.getName());
+            }
+            return valueType.cast(value);
+        } catch (IOException e) {
+            throw new DataConverterException(e);
+        }
+    }
+
+    private static boolean isSupported(Object value) {
+        // 只处理确切的类，子类可能带有额外字段
+        return value != null && (value.getClass() == TaskArgs.class
+                || value.getClass() == TaskStatus.class
+                || value.getClass() == BatchTaskInput.class
+                || value.getClass() == BatchTaskResult.class
+                || value.getClass() == TaskProgress.class);
+    }
+
+    private static void writeModel(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof TaskArgs args) {
+            out.writeByte(TYPE_TASK_ARGS);
+            out.writeByte(TASK_ARGS_VERSION);
+            writeTaskArgs(out, args);
+        } else if (value instanceof TaskStatus status) {
+            out.writeByte(TYPE_TASK_STATUS);
+            out.writeByte(TASK_STATUS_VERSION);
+            writeString(out, status.getTaskId());
+            writeString(out, status.getRunId());
+            writeString(out, status.getStatus());
+            writeString(out, status.getResult());
+            writeString(out, status.getErrorMessage());
+        } else if (value instanceof BatchTaskInput input) {
+            out.writeByte(TYPE_BATCH_TASK_INPUT);
+            out.writeByte(BATCH_TASK_INPUT_VERSION);
+            List<String> payloads = input.getPayloads();
+            out.writeInt(payloads == null ? -1 : payloads.size());
+            if (payloads != null) {
+                for (String payload : payloads) {
+                    writeString(out, payload);
+                }
+            }
+            writeInteger(out, input.getParallelism());
+            writeInteger(out, input.getItemsPerRun());
+            writeInteger(out, input.getOffset());
+            out.writeBoolean(input.getArgs() != null);
+            if (input.getArgs() != null) {
+                writeTaskArgs(out, input.getArgs());
+            }
+            out.writeBoolean(input.getResult() != null);
+            if (input.getResult() != null) {
+                writeBatchResult(out, input.getResult());
+            }
+        } else if (value instanceof TaskProgress progress) {
+            out.writeByte(TYPE_TASK_PROGRESS);
+            out.writeByte(TASK_PROGRESS_VERSION);
+            writeInteger(out, progress.getCompleted());
+            writeInteger(out, progress.getTotal());
+            writeString(out, progress.getMessage());
+            writeLong(out, progress.getUpdatedAt());
+        } else {
+            out.writeByte(TYPE_BATCH_TASK_RESULT);
+            out.writeByte(BATCH_TASK_RESULT_VERSION);
+            writeBatchResult(out, (BatchTaskResult) value);
+        }
+    }
+
+    private static Object readModel(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        byte version = in.readByte();
+        // 其余类型遇到更新的版本时只读取已知字段，末尾追加的新字段被忽略
+        switch (type) {
+            case TYPE_TASK_ARGS:
+                return readTaskArgs(in, version);
+            case TYPE_TASK_STATUS:
+                return new TaskStatus(readString(in), readString(in), readString(in), readString(in), readString(in));
+            case TYPE_BATCH_TASK_INPUT:
+                if (version > BATCH_TASK_INPUT_VERSION) {
+                    // 内嵌 TaskArgs 的新字段位于 result 之前，无法跳过
+                    throw new DataConverterException("不支持的 BatchTaskInput 二进制版本: " + version);
+                }
+                BatchTaskInput input = new BatchTaskInput();
+                int size = in.readInt();
+                if (size >= 0) {
+                    List<String> payloads = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        payloads.add(readString(in));
+                    }
+                    input.setPayloads(payloads);
+                } else {
+                    input.setPayloads(null);
+                }
+                input.setParallelism(readInteger(in));
+                input.setItemsPerRun(readInteger(in));
+                input.setOffset(readInteger(in));
+                input.setArgs(in.readBoolean() ? readTaskArgs(in, version) : null);
+                input.setResult(in.readBoolean() ? readBatchResult(in) : null);
+                return input;
+            case TYPE_BATCH_TASK_RESULT:
+                return readBatchResult(in);
+            case TYPE_TASK_PROGRESS:
+                return new TaskProgress(readInteger(in), readInteger(in), readString(in), readLong(in));
+            default:
+                throw new DataConverterException("未知的二进制 Payload 类型: " + type);
+        }
+    }
+
+    private static void writeTaskArgs(DataOutputStream out, TaskArgs args) throws IOException {
+        writeDuration(out, args.getExecutionTimeout());
+        writeInteger(out, args.getRetryCount());
+        writeDuration(out, args.getHeartbeatTimeout());
+        writeDuration(out, args.getResultCacheTtl());
+    }
+
+    private static TaskArgs readTaskArgs(DataInputStream in, byte version) throws IOException {
+        TaskArgs args = new TaskArgs();
+        args.setExecutionTimeout(readDuration(in));
+        args.setRetryCount(readInteger(in));
+        // 版本 1 没有心跳超时，保持为空，由 Workflow 使用默认值
+        args.setHeartbeatTimeout(version >= 2 ? readDuration(in) : null);
+        // 版本 3 之前没有结果缓存策略，即不缓存
+        args.setResultCacheTtl(version >= 3 ? readDuration(in) : null);
+        return args;
+    }
+
+    private static void writeBatchResult(DataOutputStream out, BatchTaskResult result) throws IOException {
+        out.writeInt(result.getTotal());
+        out.writeInt(result.getSucceeded());
+        out.writeInt(result.getFailed());
+        List<BatchTaskResult.ItemError> errors = result.getErrors() == null ? List.of() : result.getErrors();
+        out.writeInt(errors.size());
+        for (BatchTaskResult.ItemError error : errors) {
+            out.writeInt(error.getIndex());
+            writeString(out, error.getMessage());
+        }
+    }
+
+    private static BatchTaskResult readBatchResult(DataInputStream in) throws IOException {
+        BatchTaskResult result = new BatchTaskResult();
+        result.setTotal(in.readInt());
+        result.setSucceeded(in.readInt());
+        result.setFailed(in.readInt());
+        int size = in.readInt();
+        List<BatchTaskResult.ItemError> errors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            errors.add(new BatchTaskResult.ItemError(in.readInt(), readString(in)));
+        }
+        result.setErrors(errors);
+        return result;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            // writeUTF 限制 64KB，payload 可能更大，统一写 UTF-8 字节
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeDuration(DataOutputStream out, Duration value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getSeconds());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Duration readDuration(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Duration.ofSeconds(in.readLong(), in.readInt()) : null;
+    }
+
+}
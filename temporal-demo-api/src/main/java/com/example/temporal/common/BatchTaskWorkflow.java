@@ -0,0 +1,23 @@
+package com.example.temporal.common;
+
+import com.example.temporal.model.BatchTaskInput;
+import com.example.temporal.model.BatchTaskResult;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+
+/**
+ * 批量任务Workflow接口，一次下发多个任务，以有限并发扇出执行 TaskActivity
+ *
+ * @author 0xNPC
+ */
+@WorkflowInterface
+public interface BatchTaskWorkflow {
+
+    /**
+     * @param input 批量任务参数
+     * @return 批量任务结果
+     */
+    @WorkflowMethod
+    BatchTaskResult executeBatch(BatchTaskInput input);
+
+}
@@ -0,0 +1,32 @@
+package com.example.temporal.common;
+
+import io.temporal.workflow.UpdateMethod;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+
+/**
+ * 按 Region 常驻的 Ping 会话 Workflow
+ * <p>
+ * 同步请求以 Workflow Update 的方式发送到同一个长期运行的实例，省去每次 start/complete 的开销
+ *
+ * @author 0xNPC
+ */
+@WorkflowInterface
+public interface PingSessionWorkflow {
+
+    /**
+     * 会话主循环，处理满 maxUpdatesPerRun 个请求后 continue-as-new，控制 History 大小
+     *
+     * @param maxUpdatesPerRun 单次运行处理的最大请求数
+     */
+    @WorkflowMethod
+    void run(int maxUpdatesPerRun);
+
+    /**
+     * @param payload 任务具体的参数
+     * @return 任务执行结果
+     */
+    @UpdateMethod
+    String ping(String payload);
+
+}
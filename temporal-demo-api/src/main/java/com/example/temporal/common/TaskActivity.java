@@ -1,5 +1,6 @@
 package com.example.temporal.common;
 
+import com.example.temporal.model.TaskArgs;
 import io.temporal.activity.ActivityInterface;
 import io.temporal.activity.ActivityMethod;
 
@@ -11,7 +12,10 @@ import io.temporal.activity.ActivityMethod;
 @ActivityInterface
 public interface TaskActivity {
 
+    /**
+     * @param taskArgs 任务控制参数，Activity 只读取其中的结果缓存策略；升级前调度的任务为 null
+     */
     @ActivityMethod
-    String runBusinessLogic(String payload);
+    String runBusinessLogic(String payload, TaskArgs taskArgs);
 
 }
@@ -0,0 +1,56 @@
+package com.example.temporal.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量任务参数
+ * <p>
+ * continue-as-new 时只携带尚未处理的 payload 和累计结果，History 大小随处理进度递减
+ *
+ * @author 0xNPC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTaskInput {
+
+    /**
+     * 待处理的任务参数
+     */
+    private List<String> payloads;
+
+    /**
+     * 同时执行的 Activity 数
+     */
+    @Builder.Default
+    private Integer parallelism = 10;
+
+    /**
+     * 每次运行处理的任务数，处理完后 continue-as-new
+     */
+    @Builder.Default
+    private Integer itemsPerRun = 500;
+
+    /**
+     * payloads[0] 在整个批次中的序号，continue-as-new 时递增
+     */
+    @Builder.Default
+    private Integer offset = 0;
+
+    /**
+     * 单个任务的控制参数
+     */
+    private TaskArgs args;
+
+    /**
+     * 之前各次运行的累计结果
+     */
+    private BatchTaskResult result;
+
+}
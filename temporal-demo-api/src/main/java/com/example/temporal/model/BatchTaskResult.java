@@ -0,0 +1,52 @@
+package com.example.temporal.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量任务结果
+ * <p>
+ * 只记录计数和失败明细（最多 {@link #MAX_ERRORS} 条），成功结果不保留，避免结果随批次大小线性增长
+ *
+ * @author 0xNPC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTaskResult {
+
+    public static final int MAX_ERRORS = 100;
+
+    private int total;              // 已处理的任务数
+    private int succeeded;          // 成功数
+    private int failed;             // 失败数
+    private List<ItemError> errors = new ArrayList<>();    // 失败明细
+
+    public void recordSuccess() {
+        total++;
+        succeeded++;
+    }
+
+    public void recordFailure(int index, String message) {
+        total++;
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new ItemError(index, message));
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+
+        private int index;              // 任务在批次中的序号
+        private String message;         // 失败原因
+
+    }
+
+}
@@ -28,5 +28,16 @@ public class TaskArgs {
      */
     private Integer retryCount = 1;
 
+    /**
+     * 心跳超时：Activity 超过该时间未上报心跳即判定 Worker 失联并重试，取消请求也随心跳送达；
+     * 为空时使用默认 10 秒，0 表示不启用心跳超时
+     */
+    private Duration heartbeatTimeout;
+
+    /**
+     * 结果缓存有效期：Worker 内 payload 相同、且缓存结果未超过该时长时直接复用结果，不再执行；
+     * 同一 Worker 上并发的相同任务只执行一次。为空或 0 表示不缓存（默认），只适用于幂等、结果可复用的任务
+     */
+    private Duration resultCacheTtl;
 
 }
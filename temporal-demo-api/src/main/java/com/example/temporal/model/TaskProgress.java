@@ -0,0 +1,41 @@
+package com.example.temporal.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 任务进度，由 Activity 随心跳上报
+ * <p>
+ * 心跳详情保存在服务端的待执行 Activity 上：Activity 重试时据此从上次进度继续，Server 通过 describe 读取最新进度。
+ *
+ * @author 0xNPC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskProgress {
+
+    /**
+     * 已完成步数
+     */
+    private Integer completed;
+
+    /**
+     * 总步数
+     */
+    private Integer total;
+
+    /**
+     * 进度说明
+     */
+    private String message;
+
+    /**
+     * 上报时间（毫秒时间戳）
+     */
+    private Long updatedAt;
+
+}
@@ -0,0 +1,194 @@
+package com.example.temporal.codec;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodecException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ClaimCheckPayloadCodec}：按阈值转存、往返解码、伪造 key 校验与按字节数的 LRU 缓存
+ *
+ * @author 0xNPC
+ */
+class ClaimCheckPayloadCodecTest {
+
+    private static final int THRESHOLD_BYTES = 1024;
+
+    private static final long CACHE_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void payloadBelowThresholdStaysInline() throws Exception {
+        ClaimCheckPayloadCodec codec = newCodec(true, CACHE_BYTES);
+        Payload payload = payload(THRESHOLD_BYTES / 2, 'a');
+
+        Payload encoded = encode(codec, payload);
+
+        assertSame(payload, encoded);
+        assertSame(payload, decode(codec, encoded));
+        assertEquals(0, codec.stats().getOffloadedPayloads());
+        assertEquals(0, countBlobs());
+    }
+
+    @Test
+    void payloadAboveThresholdRoundTripsThroughStore() throws Exception {
+        ClaimCheckPayloadCodec writer = newCodec(true, CACHE_BYTES);
+        Payload payload = payload(THRESHOLD_BYTES * 4, 'a');
+
+        Payload encoded = encode(writer, payload);
+
+        assertEquals(ClaimCheckPayloadCodec.METADATA_ENCODING_CLAIM_CHECK,
+                encoded.getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY));
+        assertEquals(String.valueOf(payload.getSerializedSize()),
+                encoded.getMetadataOrThrow(ClaimCheckPayloadCodec.METADATA_SIZE_KEY).toStringUtf8());
+        assertTrue(BlobStore.isValidKey(encoded.getData().toStringUtf8()));
+        assertTrue(encoded.getSerializedSize() < THRESHOLD_BYTES);
+        assertEquals(1, countBlobs());
+
+        // 另一个进程 (缓存为空) 从存储读取，之后命中本地缓存
+        ClaimCheckPayloadCodec reader = newCodec(true, CACHE_BYTES);
+        assertEquals(payload, decode(reader, encoded));
+        assertEquals(payload, decode(reader, encoded));
+        assertEquals(1, reader.stats().getStoreReads());
+        assertEquals(1, reader.stats().getCacheHits());
+        assertEquals(payload.getSerializedSize(), reader.stats().getStoreReadBytes());
+    }
+
+    @Test
+    void payloadAtThresholdIsOffloaded() throws Exception {
+        Payload payload = payload(THRESHOLD_BYTES, 'a');
+        ClaimCheckPayloadCodec codec = new ClaimCheckPayloadCodec(true, payload.getSerializedSize(), CACHE_BYTES,
+                new LocalFileBlobStore(dir));
+
+        Payload encoded = encode(codec, payload);
+
+        assertEquals(ClaimCheckPayloadCodec.METADATA_ENCODING_CLAIM_CHECK,
+                encoded.getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY));
+        assertEquals(payload, decode(codec, encoded));
+    }
+
+    @Test
+    void samePayloadIsStoredOnce() throws Exception {
+        ClaimCheckPayloadCodec codec = newCodec(true, CACHE_BYTES);
+
+        Payload first = encode(codec, payload(THRESHOLD_BYTES * 4, 'a'));
+        Payload second = encode(codec, payload(THRESHOLD_BYTES * 4, 'a'));
+
+        assertEquals(first, second);
+        assertEquals(1, countBlobs());
+    }
+
+    @Test
+    void disabledCodecStillDecodes() throws Exception {
+        Payload payload = payload(THRESHOLD_BYTES * 4, 'a');
+        Payload encoded = encode(newCodec(true, CACHE_BYTES), payload);
+        ClaimCheckPayloadCodec disabled = newCodec(false, CACHE_BYTES);
+
+        assertSame(payload, encode(disabled, payload));
+        assertEquals(payload, decode(disabled, encoded));
+    }
+
+    @Test
+    void forgedKeyIsRejected() {
+        ClaimCheckPayloadCodec codec = newCodec(true, CACHE_BYTES);
+
+        for (String key : List.of("../../etc/passwd", "a".repeat(63), "A".repeat(64), "")) {
+            Payload forged = Payload.newBuilder()
+                    .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ClaimCheckPayloadCodec.METADATA_ENCODING_CLAIM_CHECK)
+                    .setData(ByteString.copyFromUtf8(key))
+                    .build();
+            assertThrows(PayloadCodecException.class, () -> decode(codec, forged), key);
+        }
+        assertEquals(0, codec.stats().getStoreReads());
+    }
+
+    @Test
+    void missingBlobFailsDecode() throws Exception {
+        Payload encoded = encode(newCodec(true, CACHE_BYTES), payload(THRESHOLD_BYTES * 4, 'a'));
+        ClaimCheckPayloadCodec reader = new ClaimCheckPayloadCodec(true, THRESHOLD_BYTES, CACHE_BYTES,
+                new LocalFileBlobStore(dir.resolve("empty")));
+
+        assertThrows(PayloadCodecException.class, () -> decode(reader, encoded));
+    }
+
+    @Test
+    void cacheEvictsLeastRecentlyUsedByBytes() throws Exception {
+        Payload a = payload(THRESHOLD_BYTES * 4, 'a');
+        Payload b = payload(THRESHOLD_BYTES * 4, 'b');
+        Payload c = payload(THRESHOLD_BYTES * 4, 'c');
+        long size = a.getSerializedSize();
+        // 只容得下两个
+        ClaimCheckPayloadCodec codec = newCodec(true, size * 5 / 2);
+        Payload refA = encode(codec, a);
+        Payload refB = encode(codec, b);
+        assertEquals(size * 2, codec.stats().getCachedBytes());
+
+        // 访问 A 后 B 成为最久未使用，写入 C 时淘汰 B
+        assertEquals(a, decode(codec, refA));
+        Payload refC = encode(codec, c);
+
+        assertEquals(size * 2, codec.stats().getCachedBytes());
+        assertEquals(a, decode(codec, refA));
+        assertEquals(c, decode(codec, refC));
+        assertEquals(3, codec.stats().getCacheHits());
+        assertEquals(0, codec.stats().getStoreReads());
+        assertEquals(b, decode(codec, refB));
+        assertEquals(1, codec.stats().getStoreReads());
+        assertEquals(size * 2, codec.stats().getCachedBytes());
+    }
+
+    @Test
+    void payloadLargerThanCacheIsNotCached() throws Exception {
+        Payload payload = payload(THRESHOLD_BYTES * 4, 'a');
+        ClaimCheckPayloadCodec codec = newCodec(true, payload.getSerializedSize() - 1);
+
+        Payload encoded = encode(codec, payload);
+        decode(codec, encoded);
+
+        assertEquals(0, codec.stats().getCachedBytes());
+        assertEquals(1, codec.stats().getStoreReads());
+    }
+
+    private ClaimCheckPayloadCodec newCodec(boolean enabled, long cacheBytes) {
+        return new ClaimCheckPayloadCodec(enabled, THRESHOLD_BYTES, cacheBytes, new LocalFileBlobStore(dir));
+    }
+
+    private long countBlobs() throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static Payload payload(int dataBytes, char fill) {
+        byte[] data = new byte[dataBytes];
+        Arrays.fill(data, (byte) fill);
+        return Payload.newBuilder()
+                .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ByteString.copyFromUtf8("binary/plain"))
+                .setData(ByteString.copyFrom(data))
+                .build();
+    }
+
+    private static Payload encode(ClaimCheckPayloadCodec codec, Payload payload) {
+        return codec.encode(List.of(payload)).get(0);
+    }
+
+    private static Payload decode(ClaimCheckPayloadCodec codec, Payload payload) {
+        return codec.decode(List.of(payload)).get(0);
+    }
+
+}
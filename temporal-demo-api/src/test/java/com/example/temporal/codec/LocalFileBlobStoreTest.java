@@ -0,0 +1,85 @@
+package com.example.temporal.codec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link LocalFileBlobStore}：读写与非法 key 校验
+ *
+ * @author 0xNPC
+ */
+class LocalFileBlobStoreTest {
+
+    private static final String KEY = "a".repeat(64);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void putThenGetReturnsData() throws IOException {
+        LocalFileBlobStore store = new LocalFileBlobStore(dir.resolve("blobs"));
+        byte[] data = "payload".getBytes(StandardCharsets.UTF_8);
+
+        store.put(KEY, data);
+
+        assertArrayEquals(data, store.get(KEY).toByteArray());
+        assertTrue(Files.exists(dir.resolve("blobs").resolve("aa").resolve(KEY)));
+    }
+
+    @Test
+    void putExistingKeyKeepsFirstContent() throws IOException {
+        LocalFileBlobStore store = new LocalFileBlobStore(dir);
+        store.put(KEY, new byte[]{1});
+
+        store.put(KEY, new byte[]{2});
+
+        assertArrayEquals(new byte[]{1}, store.get(KEY).toByteArray());
+        try (Stream<Path> files = Files.list(dir.resolve("aa"))) {
+            // 不残留临时文件
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void getMissingKeyThrowsNoSuchFile() {
+        LocalFileBlobStore store = new LocalFileBlobStore(dir);
+
+        assertThrows(NoSuchFileException.class, () -> store.get(KEY));
+    }
+
+    @Test
+    void rejectsKeysThatAreNotSha256() throws IOException {
+        LocalFileBlobStore store = new LocalFileBlobStore(dir.resolve("blobs"));
+        Files.writeString(dir.resolve("secret"), "secret");
+        String[] keys = {
+                "../../etc/passwd",
+                "../secret",
+                "aa/../../secret",
+                "a".repeat(63),
+                "a".repeat(65),
+                "A".repeat(64),
+                "g".repeat(64),
+                ""
+        };
+
+        for (String key : keys) {
+            assertThrows(IllegalArgumentException.class, () -> store.get(key), key);
+            assertThrows(IllegalArgumentException.class, () -> store.put(key, new byte[]{1}), key);
+        }
+        assertEquals("secret", Files.readString(dir.resolve("secret")));
+        assertTrue(Files.notExists(dir.resolve("blobs")));
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.example.temporal.bench;
+
+import com.example.temporal.codec.CompressionPayloadCodec;
+import com.example.temporal.codec.DataConverters;
+import com.example.temporal.codec.ModelBinaryPayloadConverter;
+import com.example.temporal.common.TaskActivity;
+import com.example.temporal.model.TaskArgs;
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.server.service.DispatchMetrics;
+import com.example.temporal.server.service.IdempotencyIndex;
+import com.example.temporal.server.service.RegionAdmission;
+import com.example.temporal.server.service.RegionRouter;
+import com.example.temporal.server.service.TaskDispatchService;
+import com.example.temporal.server.service.TaskStatusCache;
+import com.example.temporal.worker.WorkerStarter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测环境：内存版 Temporal 服务 + 本地 Worker + 手工组装的 TaskDispatchService
+ * <p>
+ * Worker 注册与生产一致的 Workflow 实现，TaskActivity 替换为 {@link BenchTaskActivity}，避免 10 秒的模拟耗时干扰结果
+ *
+ * @author 0xNPC
+ */
+public class BenchEnvironment implements AutoCloseable {
+
+    public static final String TASK_QUEUE = "queue-bench";
+
+    private final TestWorkflowEnvironment testEnv;
+
+    private final ExecutorService dispatchExecutor;
+
+    private final TemporalProperties temporalProperties;
+
+    private final TaskStatusCache taskStatusCache;
+
+    private final TaskDispatchService taskDispatchService;
+
+    private final BenchTaskActivity taskActivity = new BenchTaskActivity();
+
+    public BenchEnvironment(TemporalProperties temporalProperties) {
+        this.temporalProperties = temporalProperties;
+        TemporalProperties.Codec codec = temporalProperties.getCodec();
+        WorkflowClientOptions clientOptions = WorkflowClientOptions.newBuilder()
+                .setDataConverter(DataConverters.newDataConverter(
+                        new ModelBinaryPayloadConverter(codec.isBinaryModelEnabled()),
+                        List.of(new CompressionPayloadCodec(codec.isCompressionEnabled(), codec.getCompressionThresholdBytes(),
+                                codec.getCompressionMaxRatio(), codec.getCompressionLevel()))))
+                .build();
+        this.testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setWorkflowClientOptions(clientOptions)
+                // 使用真实时间，压测结果才能反映实际延迟
+                .setUseTimeskipping(false)
+                .build());
+        Worker worker = testEnv.newWorker(TASK_QUEUE);
+        WorkerStarter.registerImplementations(worker, taskActivity);
+        String syncLaneSuffix = temporalProperties.getDispatch().getSyncLaneSuffix();
+        if (!syncLaneSuffix.isEmpty()) {
+            WorkerStarter.registerSyncLaneImplementations(testEnv.newWorker(TASK_QUEUE + syncLaneSuffix));
+        }
+        testEnv.start();
+
+        this.dispatchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.taskStatusCache = new TaskStatusCache(temporalProperties, dispatchExecutor);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DispatchMetrics dispatchMetrics = new DispatchMetrics(meterRegistry, temporalProperties);
+        this.taskDispatchService = new TaskDispatchService(testEnv.getWorkflowClient(), temporalProperties,
+                dispatchExecutor, taskStatusCache, new ObjectMapper(), dispatchMetrics,
+                new RegionAdmission(temporalProperties, dispatchMetrics),
+                new RegionRouter(testEnv.getWorkflowClient(), temporalProperties, meterRegistry, dispatchMetrics),
+                new IdempotencyIndex(temporalProperties));
+        this.taskDispatchService.init();
+    }
+
+    public WorkflowClient getWorkflowClient() {
+        return testEnv.getWorkflowClient();
+    }
+
+    public TaskDispatchService getTaskDispatchService() {
+        return taskDispatchService;
+    }
+
+    public TaskStatusCache getTaskStatusCache() {
+        return taskStatusCache;
+    }
+
+    public TemporalProperties getTemporalProperties() {
+        return temporalProperties;
+    }
+
+    @Override
+    public void close() {
+        taskActivity.release();
+        testEnv.close();
+        dispatchExecutor.shutdownNow();
+    }
+
+    /**
+     * 压测用 TaskActivity：payload 为 {@link #FAIL} 时直接失败，为 {@link #BLOCK} 时阻塞到 release，其余等待 serviceTime 后返回
+     */
+    public static class BenchTaskActivity implements TaskActivity {
+
+        public static final String FAIL = "fail";
+
+        public static final String BLOCK = "block";
+
+        private final Duration serviceTime;
+
+        private volatile boolean released;
+
+        public BenchTaskActivity() {
+            this(Duration.ZERO);
+        }
+
+        public BenchTaskActivity(Duration serviceTime) {
+            this.serviceTime = serviceTime;
+        }
+
+        @Override
+        public String runBusinessLogic(String payload, TaskArgs taskArgs) {
+            if (FAIL.equals(payload)) {
+                throw ApplicationFailure.newNonRetryableFailure("bench failure", "BenchFailure");
+            }
+            if (BLOCK.equals(payload)) {
+                while (!released) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            } else if (!serviceTime.isZero()) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(serviceTime.toNanos());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "bench result";
+        }
+
+        void release() {
+            released = true;
+        }
+
+    }
+
+}
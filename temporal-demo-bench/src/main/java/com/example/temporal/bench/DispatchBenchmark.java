@@ -0,0 +1,68 @@
+package com.example.temporal.bench;
+
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.server.constants.SyncMode;
+import com.example.temporal.server.constants.TaskType;
+import com.example.temporal.server.service.TaskDispatchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskDispatchService.dispatchTask 压测
+ * <p>
+ * SYNC_WORKFLOW / SYNC_SESSION 测量一次同步调用的端到端延迟，ASYNC 测量一次 start 的延迟
+ *
+ * @author 0xNPC
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Param({"SYNC_WORKFLOW", "SYNC_SESSION", "ASYNC"})
+    public String mode;
+
+    private BenchEnvironment env;
+
+    private TaskDispatchService taskDispatchService;
+
+    private TaskType taskType;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TemporalProperties temporalProperties = new TemporalProperties();
+        temporalProperties.getDispatch().setSyncMode("SYNC_SESSION".equals(mode) ? SyncMode.SESSION : SyncMode.WORKFLOW);
+        taskType = "ASYNC".equals(mode) ? TaskType.ASYNC : TaskType.SYNC;
+        env = new BenchEnvironment(temporalProperties);
+        taskDispatchService = env.getTaskDispatchService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public String dispatchTask() {
+        return taskDispatchService.dispatchTask(taskType, BenchEnvironment.TASK_QUEUE,
+                UUID.randomUUID().toString(), "bench command").join();
+    }
+
+}
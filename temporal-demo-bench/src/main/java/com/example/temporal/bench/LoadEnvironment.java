@@ -0,0 +1,124 @@
+package com.example.temporal.bench;
+
+import com.example.temporal.codec.ClaimCheckPayloadCodec;
+import com.example.temporal.codec.CompressionPayloadCodec;
+import com.example.temporal.codec.DataConverters;
+import com.example.temporal.codec.LocalFileBlobStore;
+import com.example.temporal.codec.ModelBinaryPayloadConverter;
+import com.example.temporal.server.TemporalServer;
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.worker.WorkerStarter;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import io.temporal.testserver.TestServer;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 端到端压测环境：本地 gRPC 测试服务 + Spring Server + 独立 Worker
+ * <p>
+ * 请求链路与生产一致：HTTP → TemporalController → TaskDispatchService → Temporal → Worker，
+ * 仅 Temporal 替换为 temporal-testing 的测试服务，TaskActivity 替换为固定耗时的 {@link BenchEnvironment.BenchTaskActivity}
+ *
+ * @author 0xNPC
+ */
+public class LoadEnvironment implements AutoCloseable {
+
+    private final TestServer.PortBoundTestServer testServer;
+
+    private final ConfigurableApplicationContext serverContext;
+
+    private final WorkflowServiceStubs workerService;
+
+    private final WorkerFactory workerFactory;
+
+    private final BenchEnvironment.BenchTaskActivity taskActivity;
+
+    private final int httpPort;
+
+    /**
+     * @param regions     Worker 监听的 Region (任务队列)
+     * @param serviceTime 每个 Activity 的模拟耗时
+     * @param serverArgs  追加给 Spring Server 的启动参数，如 --temporal.dispatch.sync-mode=SESSION
+     */
+    public LoadEnvironment(List<String> regions, Duration serviceTime, List<String> serverArgs) {
+        int temporalPort = freePort();
+        this.testServer = TestServer.createPortBoundServer(temporalPort);
+
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--temporal.frontend-address=127.0.0.1:" + temporalPort);
+        args.add("--temporal.tls-enabled=false");
+        args.add("--springdoc.api-docs.enabled=false");
+        args.addAll(serverArgs);
+        this.serverContext = new SpringApplicationBuilder(TemporalServer.class).run(args.toArray(String[]::new));
+        this.httpPort = ((ServletWebServerApplicationContext) serverContext).getWebServer().getPort();
+
+        // Worker 使用独立连接，模拟单独部署的 Worker 进程；编解码与 Server 保持一致
+        TemporalProperties.Codec codec = serverContext.getBean(TemporalProperties.class).getCodec();
+        this.workerService = WorkflowServiceStubs.newServiceStubs(WorkflowServiceStubsOptions.newBuilder()
+                .setTarget("127.0.0.1:" + temporalPort)
+                .build());
+        WorkflowClient workerClient = WorkflowClient.newInstance(workerService, WorkflowClientOptions.newBuilder()
+                .setDataConverter(DataConverters.newDataConverter(
+                        new ModelBinaryPayloadConverter(codec.isBinaryModelEnabled()),
+                        List.of(new ClaimCheckPayloadCodec(codec.isClaimCheckEnabled(), codec.getClaimCheckThresholdBytes(),
+                                        codec.getClaimCheckCacheSize().toBytes(), new LocalFileBlobStore(Path.of(codec.getClaimCheckDir()))),
+                                new CompressionPayloadCodec(codec.isCompressionEnabled(), codec.getCompressionThresholdBytes(),
+                                        codec.getCompressionMaxRatio(), codec.getCompressionLevel()))))
+                .build());
+        this.workerFactory = WorkerFactory.newInstance(workerClient);
+        String syncLaneSuffix = serverContext.getBean(TemporalProperties.class).getDispatch().getSyncLaneSuffix();
+        this.taskActivity = new BenchEnvironment.BenchTaskActivity(serviceTime);
+        for (String region : regions) {
+            Worker worker = workerFactory.newWorker(region);
+            WorkerStarter.registerImplementations(worker, taskActivity);
+            if (!syncLaneSuffix.isEmpty()) {
+                WorkerStarter.registerSyncLaneImplementations(workerFactory.newWorker(region + syncLaneSuffix));
+            }
+        }
+        workerFactory.start();
+    }
+
+    /**
+     * Spring Server 的 HTTP 基础地址
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + httpPort;
+    }
+
+    public ConfigurableApplicationContext getServerContext() {
+        return serverContext;
+    }
+
+    @Override
+    public void close() {
+        taskActivity.release();
+        workerFactory.shutdownNow();
+        serverContext.close();
+        workerService.shutdownNow();
+        testServer.close();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,338 @@
+package com.example.temporal.bench;
+
+import com.example.temporal.server.constants.TaskType;
+import com.example.temporal.server.service.TaskDispatchService;
+import lombok.Data;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 端到端压测：以开环 (open-loop) 固定到达率向 Spring Server 发送 SYNC / ASYNC 任务与状态查询，
+ * 按 "请求类型/Region" 输出延迟分位、吞吐与错误率
+ * <p>
+ * 开环即按计划时间发送，不等待上一请求返回，服务端变慢时请求会堆积而不是自动降速，能真实反映过载表现。
+ * 参数通过 -Dload.* 指定，见 {@link LoadOptions}：
+ * <pre>
+ * java -Dload.rate=500 -Dload.duration=60s -cp temporal-demo-bench/target/benchmarks.jar com.example.temporal.bench.LoadGenerator
+ * java -Dload.mode=SATURATION -cp temporal-demo-bench/target/benchmarks.jar com.example.temporal.bench.LoadGenerator
+ * </pre>
+ *
+ * @author 0xNPC
+ */
+public class LoadGenerator {
+
+    private static final String STATUS = "STATUS";
+
+    /**
+     * 最近下发的任务，供状态查询随机选取
+     */
+    private static final int RECENT_TASKS = 4096;
+
+    private final LoadOptions options;
+
+    private final String baseUrl;
+
+    private final HttpClient httpClient;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final AtomicLong regionCursor = new AtomicLong();
+
+    private final AtomicLong recentCursor = new AtomicLong();
+
+    private final AtomicReferenceArray<RecentTask> recentTasks = new AtomicReferenceArray<>(RECENT_TASKS);
+
+    public LoadGenerator(LoadOptions options, String baseUrl, ExecutorService httpExecutor) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(httpExecutor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) {
+        LoadOptions options = LoadOptions.fromSystemProperties();
+        PrintStream out = System.out;
+        out.println("[load] " + options);
+        try (LoadEnvironment env = new LoadEnvironment(options.getRegions(), options.getServiceTime(), options.getServerArgs());
+             ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            LoadGenerator generator = new LoadGenerator(options, env.getBaseUrl(), httpExecutor);
+            if (!options.getWarmup().isZero()) {
+                out.printf("[load] 预热 %s @ %.0f req/s%n", options.getWarmup(), options.getRate());
+                generator.runStep(options.getRate(), options.getWarmup());
+            }
+            if (options.getMode() == Mode.SATURATION) {
+                generator.runSaturation(out);
+            } else {
+                out.printf("[load] 压测 %s @ %.0f req/s%n", options.getDuration(), options.getRate());
+                generator.runStep(options.getRate(), options.getDuration()).print(out);
+            }
+        }
+        // Spring 与 gRPC 的非守护线程可能延迟退出
+        System.exit(0);
+    }
+
+    /**
+     * 饱和模式：从 saturationStartRate 起每轮提高 saturationStep，直到不再满足 SLO，输出最后一个满足 SLO 的速率
+     * <p>
+     * 满足 SLO：实际吞吐不低于目标速率的 95%，错误率不超过 maxErrorRate，整体 p99 不超过 sloP99
+     */
+    public double runSaturation(PrintStream out) {
+        double sustainableRate = 0;
+        LoadStats.Snapshot sustainable = null;
+        for (double rate = options.getSaturationStartRate(); rate <= options.getSaturationMaxRate();
+             rate += options.getSaturationStep()) {
+            LoadStats.Snapshot snapshot = runStep(rate, options.getStepDuration());
+            LoadStats.Row total = snapshot.total();
+            boolean ok = total.throughput() >= rate * 0.95
+                    && total.errorRate() <= options.getMaxErrorRate()
+                    && total.percentileMillis(99) <= options.getSloP99().toMillis();
+            out.printf("[saturation] target=%.0f req/s achieved=%.1f req/s err=%.2f%% p99=%.2fms -> %s%n",
+                    rate, total.throughput(), total.errorRate() * 100, total.percentileMillis(99), ok ? "OK" : "SATURATED");
+            if (!ok) {
+                break;
+            }
+            sustainableRate = rate;
+            sustainable = snapshot;
+        }
+        out.printf("[saturation] 最大可持续速率: %.0f req/s%n", sustainableRate);
+        if (sustainable != null) {
+            sustainable.print(out);
+        }
+        return sustainableRate;
+    }
+
+    /**
+     * 以固定到达率发压 duration 时长，等待在途请求返回后生成统计
+     */
+    public LoadStats.Snapshot runStep(double rate, Duration duration) {
+        LoadStats stats = new LoadStats();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long intended = start; intended < end; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(intended, stats);
+        }
+        long drainDeadline = System.nanoTime() + options.getRequestTimeout().toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return stats.snapshot(System.nanoTime() - start);
+    }
+
+    private void send(long intended, LoadStats stats) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        RecentTask recent = random.nextDouble() < options.getStatusRatio() ? randomRecentTask(random) : null;
+        HttpRequest request;
+        String key;
+        String region;
+        if (recent != null) {
+            region = recent.region();
+            key = STATUS + "/" + region;
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/temporal/" + recent.taskId() + "/status"))
+                    .timeout(options.getRequestTimeout())
+                    .GET()
+                    .build();
+        } else {
+            List<String> regions = options.getRegions();
+            region = regions.get((int) (regionCursor.getAndIncrement() % regions.size()));
+            TaskType taskType = random.nextDouble() < options.getSyncRatio() ? TaskType.SYNC : TaskType.ASYNC;
+            key = taskType + "/" + region;
+            String body = "{\"region\":\"" + region + "\",\"command\":\"load\",\"taskType\":\"" + taskType + "\"}";
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/temporal/"))
+                    .timeout(options.getRequestTimeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+        // 在途请求超出上限时直接丢弃并计为失败，保持开环，不让发压端被拖慢
+        if (outstanding.incrementAndGet() > options.getMaxOutstanding()) {
+            outstanding.decrementAndGet();
+            stats.recordFailure(key, System.nanoTime() - intended);
+            return;
+        }
+        boolean dispatch = recent == null;
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, ex) -> {
+                    long latency = System.nanoTime() - intended;
+                    outstanding.decrementAndGet();
+                    if (ex != null || response.statusCode() != 200) {
+                        stats.recordFailure(key, latency);
+                        return;
+                    }
+                    stats.recordSuccess(key, latency);
+                    if (dispatch) {
+                        rememberTask(response.body(), region);
+                    }
+                });
+    }
+
+    /**
+     * 下发接口返回 "taskId: result"；会话模式的 taskId 不支持状态查询，不记录
+     */
+    private void rememberTask(String body, String region) {
+        int separator = body.indexOf(": ");
+        if (separator > 0 && !body.startsWith(TaskDispatchService.SESSION_TASK_ID_PREFIX)) {
+            int slot = (int) (recentCursor.getAndIncrement() % RECENT_TASKS);
+            recentTasks.set(slot, new RecentTask(body.substring(0, separator), region));
+        }
+    }
+
+    private RecentTask randomRecentTask(ThreadLocalRandom random) {
+        long size = Math.min(recentCursor.get(), RECENT_TASKS);
+        return size == 0 ? null : recentTasks.get(random.nextInt((int) size));
+    }
+
+    private record RecentTask(String taskId, String region) {
+    }
+
+    public enum Mode {
+        /**
+         * 固定速率发压 duration 时长
+         */
+        FIXED,
+        /**
+         * 逐步提速，寻找最大可持续速率
+         */
+        SATURATION
+    }
+
+    /**
+     * 压测参数，均可通过 -Dload.xxx 覆盖 (如 -Dload.sync-ratio=0.5)
+     */
+    @Data
+    public static class LoadOptions {
+
+        private Mode mode = Mode.FIXED;
+
+        /**
+         * Worker 监听并轮流下发的 Region
+         */
+        private List<String> regions = List.of("queue-beijing", "queue-shanghai");
+
+        /**
+         * 固定模式的到达率 (req/s)，也用于预热
+         */
+        private double rate = 200;
+
+        private Duration duration = Duration.ofSeconds(30);
+
+        private Duration warmup = Duration.ofSeconds(10);
+
+        /**
+         * 状态查询占全部请求的比例，其余为任务下发
+         */
+        private double statusRatio = 0.3;
+
+        /**
+         * 任务下发中 SYNC 的比例，其余为 ASYNC
+         */
+        private double syncRatio = 0.3;
+
+        /**
+         * 每个 Activity 的模拟耗时
+         */
+        private Duration serviceTime = Duration.ofMillis(20);
+
+        /**
+         * 单个请求超时，需大于 Server 的 temporal.dispatch.sync-wait-timeout
+         */
+        private Duration requestTimeout = Duration.ofSeconds(60);
+
+        /**
+         * 在途请求上限，超出的请求计为失败
+         */
+        private int maxOutstanding = 10000;
+
+        private double saturationStartRate = 100;
+
+        private double saturationStep = 100;
+
+        private double saturationMaxRate = 5000;
+
+        /**
+         * 饱和模式每一档的持续时间
+         */
+        private Duration stepDuration = Duration.ofSeconds(20);
+
+        /**
+         * 饱和模式的 p99 上限
+         */
+        private Duration sloP99 = Duration.ofSeconds(1);
+
+        /**
+         * 饱和模式的错误率上限
+         */
+        private double maxErrorRate = 0.01;
+
+        /**
+         * 追加给 Spring Server 的启动参数，逗号分隔，如 --temporal.dispatch.sync-mode=SESSION
+         */
+        private List<String> serverArgs = List.of();
+
+        public static LoadOptions fromSystemProperties() {
+            LoadOptions options = new LoadOptions();
+            options.setMode(Mode.valueOf(property("mode", options.getMode().name())));
+            options.setRegions(listProperty("regions", options.getRegions()));
+            options.setRate(Double.parseDouble(property("rate", String.valueOf(options.getRate()))));
+            options.setDuration(durationProperty("duration", options.getDuration()));
+            options.setWarmup(durationProperty("warmup", options.getWarmup()));
+            options.setStatusRatio(Double.parseDouble(property("status-ratio", String.valueOf(options.getStatusRatio()))));
+            options.setSyncRatio(Double.parseDouble(property("sync-ratio", String.valueOf(options.getSyncRatio()))));
+            options.setServiceTime(durationProperty("service-time", options.getServiceTime()));
+            options.setRequestTimeout(durationProperty("request-timeout", options.getRequestTimeout()));
+            options.setMaxOutstanding(Integer.parseInt(property("max-outstanding", String.valueOf(options.getMaxOutstanding()))));
+            options.setSaturationStartRate(Double.parseDouble(
+                    property("saturation-start-rate", String.valueOf(options.getSaturationStartRate()))));
+            options.setSaturationStep(Double.parseDouble(property("saturation-step", String.valueOf(options.getSaturationStep()))));
+            options.setSaturationMaxRate(Double.parseDouble(
+                    property("saturation-max-rate", String.valueOf(options.getSaturationMaxRate()))));
+            options.setStepDuration(durationProperty("step-duration", options.getStepDuration()));
+            options.setSloP99(durationProperty("slo-p99", options.getSloP99()));
+            options.setMaxErrorRate(Double.parseDouble(property("max-error-rate", String.valueOf(options.getMaxErrorRate()))));
+            options.setServerArgs(listProperty("server-args", options.getServerArgs()));
+            return options;
+        }
+
+        private static String property(String name, String defaultValue) {
+            return System.getProperty("load." + name, defaultValue);
+        }
+
+        private static Duration durationProperty(String name, Duration defaultValue) {
+            String value = System.getProperty("load." + name);
+            return value == null ? defaultValue : DurationStyle.detectAndParse(value);
+        }
+
+        private static List<String> listProperty(String name, List<String> defaultValue) {
+            String value = System.getProperty("load." + name);
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        }
+
+    }
+
+}
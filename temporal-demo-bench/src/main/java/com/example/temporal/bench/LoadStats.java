@@ -0,0 +1,127 @@
+package com.example.temporal.bench;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测统计：按 "请求类型/Region" 分组记录延迟直方图 (HdrHistogram) 与成功/失败次数
+ * <p>
+ * 延迟从计划发送时间算起，发压端自身落后时的排队时间也计入，避免协调遗漏 (coordinated omission)
+ *
+ * @author 0xNPC
+ */
+public class LoadStats {
+
+    public static final String TOTAL = "TOTAL";
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    private final Series total = new Series();
+
+    public void recordSuccess(String key, long latencyNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        series.computeIfAbsent(key, k -> new Series()).recordSuccess(micros);
+        total.recordSuccess(micros);
+    }
+
+    public void recordFailure(String key, long latencyNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        series.computeIfAbsent(key, k -> new Series()).recordFailure(micros);
+        total.recordFailure(micros);
+    }
+
+    /**
+     * 生成快照，elapsedNanos 为本轮发压耗时，用于计算吞吐
+     */
+    public Snapshot snapshot(long elapsedNanos) {
+        Map<String, Row> rows = new TreeMap<>();
+        series.forEach((key, s) -> rows.put(key, s.toRow(elapsedNanos)));
+        return new Snapshot(rows, total.toRow(elapsedNanos));
+    }
+
+    /**
+     * 单个分组的统计
+     */
+    private static class Series {
+
+        private final Recorder recorder = new Recorder(3);
+
+        private final LongAdder succeeded = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        void recordSuccess(long micros) {
+            recorder.recordValue(micros);
+            succeeded.increment();
+        }
+
+        void recordFailure(long micros) {
+            recorder.recordValue(micros);
+            failed.increment();
+        }
+
+        Row toRow(long elapsedNanos) {
+            return new Row(succeeded.sum(), failed.sum(), recorder.getIntervalHistogram(), elapsedNanos);
+        }
+
+    }
+
+    /**
+     * 单个分组的结果
+     *
+     * @param succeeded 成功次数
+     * @param failed    失败次数 (非 2xx、连接异常、超出在途上限被丢弃)
+     * @param histogram 延迟直方图，单位微秒
+     */
+    public record Row(long succeeded, long failed, Histogram histogram, long elapsedNanos) {
+
+        public long count() {
+            return succeeded + failed;
+        }
+
+        public double throughput() {
+            return elapsedNanos == 0 ? 0 : count() * 1e9 / elapsedNanos;
+        }
+
+        public double errorRate() {
+            return count() == 0 ? 0 : (double) failed / count();
+        }
+
+        /**
+         * 指定百分位延迟，单位毫秒
+         */
+        public double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+    }
+
+    /**
+     * 一轮压测的结果
+     */
+    public record Snapshot(Map<String, Row> rows, Row total) {
+
+        public void print(PrintStream out) {
+            out.printf("%-28s %9s %10s %7s %9s %9s %9s %9s %9s%n",
+                    "key", "count", "req/s", "err%", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+            rows.forEach((key, row) -> printRow(out, key, row));
+            printRow(out, TOTAL, total);
+        }
+
+        private static void printRow(PrintStream out, String key, Row row) {
+            out.printf("%-28s %9d %10.1f %7.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    key, row.count(), row.throughput(), row.errorRate() * 100,
+                    row.percentileMillis(50), row.percentileMillis(90), row.percentileMillis(99),
+                    row.percentileMillis(99.9), row.histogram().getMaxValue() / 1000.0);
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.example.temporal.bench;
+
+import com.example.temporal.codec.CompressionPayloadCodec;
+import com.example.temporal.codec.DataConverters;
+import com.example.temporal.codec.ModelBinaryPayloadConverter;
+import com.example.temporal.model.BatchTaskInput;
+import com.example.temporal.model.TaskArgs;
+import io.temporal.api.common.v1.Payloads;
+import io.temporal.common.converter.DataConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * TaskArgs / Payload 序列化压测，对比 JSON 与二进制转换器、是否压缩
+ * <p>
+ * 分配量使用 -prof gc 查看；各 Payload 序列化后的大小在 Setup 阶段打印
+ *
+ * @author 0xNPC
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    public String converter;
+
+    @Param({"false", "true"})
+    public boolean compression;
+
+    private DataConverter dataConverter;
+
+    private TaskArgs taskArgs;
+
+    private BatchTaskInput batchInput;
+
+    private String largeCommand;
+
+    private Payloads taskArgsPayloads;
+
+    private Payloads batchInputPayloads;
+
+    private Payloads largeCommandPayloads;
+
+    @Setup
+    public void setup() {
+        dataConverter = DataConverters.newDataConverter(
+                new ModelBinaryPayloadConverter("BINARY".equals(converter)),
+                List.of(new CompressionPayloadCodec(compression, 4096, 0.9, 1)));
+
+        taskArgs = TaskArgs.builder().executionTimeout(Duration.ofMinutes(60)).retryCount(1).build();
+        batchInput = BatchTaskInput.builder()
+                .payloads(IntStream.range(0, 100).mapToObj(i -> "{\"cmd\":\"run\",\"seq\":" + i + "}").toList())
+                .parallelism(10)
+                .itemsPerRun(500)
+                .offset(0)
+                .args(taskArgs)
+                .build();
+        // 约 32KB 的 JSON 指令
+        largeCommand = "{\"items\":[" + String.join(",", IntStream.range(0, 1000)
+                .mapToObj(i -> "{\"id\":" + i + ",\"name\":\"item-" + i + "\"}").toList()) + "]}";
+
+        taskArgsPayloads = dataConverter.toPayloads(taskArgs).orElseThrow();
+        batchInputPayloads = dataConverter.toPayloads(batchInput).orElseThrow();
+        largeCommandPayloads = dataConverter.toPayloads(largeCommand).orElseThrow();
+        System.out.printf("%n[payload-size] converter=%s compression=%s taskArgs=%dB batchInput=%dB largeCommand=%dB%n",
+                converter, compression, taskArgsPayloads.getSerializedSize(),
+                batchInputPayloads.getSerializedSize(), largeCommandPayloads.getSerializedSize());
+    }
+
+    @Benchmark
+    public Payloads serializeTaskArgs() {
+        return dataConverter.toPayloads(taskArgs).orElseThrow();
+    }
+
+    @Benchmark
+    public TaskArgs deserializeTaskArgs() {
+        return dataConverter.fromPayloads(0, Optional.of(taskArgsPayloads), TaskArgs.class, TaskArgs.class);
+    }
+
+    @Benchmark
+    public Payloads serializeBatchInput() {
+        return dataConverter.toPayloads(batchInput).orElseThrow();
+    }
+
+    @Benchmark
+    public BatchTaskInput deserializeBatchInput() {
+        return dataConverter.fromPayloads(0, Optional.of(batchInputPayloads), BatchTaskInput.class, BatchTaskInput.class);
+    }
+
+    @Benchmark
+    public Payloads serializeLargeCommand() {
+        return dataConverter.toPayloads(largeCommand).orElseThrow();
+    }
+
+    @Benchmark
+    public String deserializeLargeCommand() {
+        return dataConverter.fromPayloads(0, Optional.of(largeCommandPayloads), String.class, String.class);
+    }
+
+}
@@ -0,0 +1,406 @@
+package com.example.temporal.bench;
+
+import com.example.temporal.common.TaskActivity;
+import com.example.temporal.common.TaskWorkflow;
+import com.example.temporal.common.TaskWorkflowImpl;
+import com.example.temporal.model.TaskArgs;
+import com.example.temporal.worker.WorkerConfig;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.tuning.WorkerTuner;
+import lombok.Data;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 槽位调节测试：同一个 CPU 与内存密集的 Activity 在固定槽位与按资源调节 (worker.tuner.*) 下的表现
+ * <p>
+ * 先启动足够多的 TaskWorkflow 形成积压，再启动 Worker；每个 Activity 先消耗 cpuTime 的 CPU，
+ * 再在 holdTime 内分块逐步分配共 memoryPerTask 的堆内存并持有到结束 (模拟工作集随处理逐步增长)。
+ * 固定槽位按 fixedSlots 并发，堆占用随并发线性增长，直至 OOM；
+ * 按资源调节时槽位从最小值快速爬升，堆或 CPU 达到目标后停止发放，任务完成释放槽位后回落。
+ * 每隔 sampleInterval 采样一次执行中的 Activity 数、堆占用 (已用 / 最大堆，与 SDK 的口径一致)、
+ * 最近一次 GC 后的堆占用与整机 CPU，跳过 warmup 后统计。建议用较小的 -Xmx 运行，使内存成为约束。
+ * <p>
+ * 按资源调节的设置出现 OOM、GC 后的堆占用超过目标或 CPU 平均超过目标时判定失败，进程以退出码 1 结束。
+ * 已用堆含未回收的垃圾，只输出其超过目标的时间占比，不作为判据 (结论见 README)：
+ * <pre>
+ * java -Xmx1g -Dtuning.duration=60s -cp temporal-demo-bench/target/benchmarks.jar com.example.temporal.bench.SlotTuning
+ * </pre>
+ *
+ * @author 0xNPC
+ */
+public class SlotTuning {
+
+    private static final String TASK_QUEUE = "queue-tuning-bench";
+
+    public static void main(String[] args) throws Exception {
+        TuningOptions options = TuningOptions.fromSystemProperties();
+        PrintStream out = System.out;
+        out.printf("[tuning] %s, maxHeap=%dMB%n", options, Runtime.getRuntime().maxMemory() / 1024 / 1024);
+
+        List<Result> results = new ArrayList<>();
+        for (Setting setting : options.settings()) {
+            out.printf("[tuning] %s ...%n", setting.name());
+            results.add(run(setting, options, out));
+        }
+
+        out.printf("%n%-16s %9s %9s %9s %9s %9s %9s %12s %12s %9s %9s%n", "setting", "tasks/s", "slots", "max-slots",
+                "heap", "heap-p95", "heap-max", "over-target", "gc-heap-max", "cpu", "oom");
+        for (Result result : results) {
+            out.printf("%-16s %9.1f %9.1f %9d %8.0f%% %8.0f%% %8.0f%% %11.0f%% %11.0f%% %8.0f%% %9d%n",
+                    result.setting().name(), result.throughput(), result.avgSlots(), result.maxSlots(),
+                    result.avgHeap() * 100, result.p95Heap() * 100, result.maxHeap() * 100, result.overTarget() * 100,
+                    result.maxHeapAfterGc() * 100, result.avgCpu() * 100, result.oom());
+        }
+        out.printf("target: heap %.0f%%, cpu %.0f%%%n", options.getTargetMemoryUsage() * 100,
+                options.getTargetCpuUsage() * 100);
+
+        boolean passed = true;
+        for (Result result : results) {
+            if (result.setting().tuner() == null) {
+                continue;
+            }
+            boolean ok = result.oom() == 0 && result.maxHeapAfterGc() <= options.getTargetMemoryUsage()
+                    && result.avgCpu() <= options.getTargetCpuUsage();
+            out.printf("[tuning] %s: %s (oom=%d, gc-heap-max=%.0f%%, cpu=%.0f%%)%n", result.setting().name(),
+                    ok ? "PASS" : "FAIL", result.oom(), result.maxHeapAfterGc() * 100, result.avgCpu() * 100);
+            passed &= ok;
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static Result run(Setting setting, TuningOptions options, PrintStream out) throws Exception {
+        TestWorkflowEnvironment testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setUseTimeskipping(false)
+                .build());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            WorkflowClient client = testEnv.getWorkflowClient();
+            HeavyActivity activity = new HeavyActivity(options);
+            Worker worker = testEnv.newWorker(TASK_QUEUE, setting.queueConfig().toWorkerOptions(setting.tuner()));
+            worker.registerWorkflowImplementationTypes(TaskWorkflowImpl.class);
+            worker.registerActivitiesImplementations(activity);
+
+            // 1. 先形成积压，Worker 启动后槽位即为唯一的并发约束
+            TaskArgs taskArgs = TaskArgs.builder()
+                    .executionTimeout(Duration.ofMinutes(10))
+                    .retryCount(1)
+                    .heartbeatTimeout(Duration.ZERO)
+                    .build();
+            for (int i = 0; i < options.getTasks(); i++) {
+                TaskWorkflow workflow = client.newWorkflowStub(TaskWorkflow.class, WorkflowOptions.newBuilder()
+                        .setTaskQueue(TASK_QUEUE)
+                        .setWorkflowId("tuning-" + setting.name() + "-" + i)
+                        .build());
+                WorkflowClient.start(workflow::executeTask, "heavy-" + i, taskArgs);
+            }
+            System.gc();
+
+            // 2. 启动 Worker 并定期采样
+            Samples samples = new Samples();
+            com.sun.management.OperatingSystemMXBean os =
+                    ManagementFactory.getPlatformMXBean(com.sun.management.OperatingSystemMXBean.class);
+            long startNanos = System.nanoTime();
+            long warmupNanos = options.getWarmup().toNanos();
+            long[] completedAtWarmup = {-1};
+            sampler.scheduleAtFixedRate(() -> {
+                long elapsed = System.nanoTime() - startNanos;
+                Runtime runtime = Runtime.getRuntime();
+                double heap = (double) (runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory();
+                double cpu = Math.max(0, os.getCpuLoad());
+                int slots = activity.running.get();
+                if (elapsed >= warmupNanos) {
+                    if (completedAtWarmup[0] < 0) {
+                        completedAtWarmup[0] = activity.completed.sum();
+                    }
+                    samples.add(slots, heap, heapAfterGc(), cpu, heap > options.getTargetMemoryUsage());
+                }
+                samples.timeline(elapsed, slots, heap, cpu, out, options.getReportInterval());
+            }, 0, options.getSampleInterval().toMillis(), TimeUnit.MILLISECONDS);
+            testEnv.start();
+            TimeUnit.NANOSECONDS.sleep(options.getDuration().toNanos());
+            sampler.shutdownNow();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+
+            double measuredSeconds = (System.nanoTime() - startNanos - warmupNanos) / 1e9;
+            long completed = activity.completed.sum() - Math.max(0, completedAtWarmup[0]);
+            return samples.toResult(setting, completed / measuredSeconds, activity.oom.sum());
+        } finally {
+            sampler.shutdownNow();
+            testEnv.close();
+        }
+    }
+
+    /**
+     * 最近一次 GC 结束时的堆占用 (已用 / 最大堆)，不含 GC 前累积的垃圾
+     */
+    private static double heapAfterGc() {
+        com.sun.management.GcInfo last = null;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            com.sun.management.GcInfo info = ((com.sun.management.GarbageCollectorMXBean) collector).getLastGcInfo();
+            if (info != null && (last == null || info.getEndTime() > last.getEndTime())) {
+                last = info;
+            }
+        }
+        if (last == null) {
+            return 0;
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = last.getMemoryUsageAfterGc().get(pool.getName());
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return (double) used / Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * 持有内存并消耗 CPU 的 Activity
+     */
+    private static class HeavyActivity implements TaskActivity {
+
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        private static final int MEMORY_CHUNKS = 16;
+
+        private final TuningOptions options;
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final LongAdder completed = new LongAdder();
+
+        private final LongAdder oom = new LongAdder();
+
+        HeavyActivity(TuningOptions options) {
+            this.options = options;
+        }
+
+        @Override
+        public String runBusinessLogic(String payload, TaskArgs taskArgs) {
+            running.incrementAndGet();
+            try {
+                long cpuDeadline = THREADS.getCurrentThreadCpuTime() + options.getCpuTime().toNanos();
+                long checksum = 0;
+                while (THREADS.getCurrentThreadCpuTime() < cpuDeadline) {
+                    checksum = checksum * 31 + System.nanoTime();
+                }
+                int chunkSize = (int) (options.getMemoryPerTask().toBytes() / MEMORY_CHUNKS);
+                byte[][] chunks = new byte[MEMORY_CHUNKS][];
+                for (int i = 0; i < MEMORY_CHUNKS; i++) {
+                    try {
+                        chunks[i] = new byte[chunkSize];
+                    } catch (OutOfMemoryError e) {
+                        oom.increment();
+                        throw ApplicationFailure.newNonRetryableFailure("堆内存不足", "OutOfMemory");
+                    }
+                    chunks[i][0] = (byte) checksum;
+                    TimeUnit.NANOSECONDS.sleep(options.getHoldTime().toNanos() / MEMORY_CHUNKS);
+                }
+                // 执行期间一直持有已分配的内存
+                Reference.reachabilityFence(chunks);
+                completed.increment();
+                return payload + ":" + checksum;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("任务被中断", e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+    }
+
+    /**
+     * 采样数据，只由采样线程写入
+     */
+    private static class Samples {
+
+        private final List<Double> heaps = new ArrayList<>();
+
+        private long slotsSum;
+
+        private int maxSlots;
+
+        private double heapSum;
+
+        private double maxHeapAfterGc;
+
+        private double cpuSum;
+
+        private int overTarget;
+
+        private long nextReportNanos;
+
+        synchronized void add(int slots, double heap, double heapAfterGc, double cpu, boolean over) {
+            heaps.add(heap);
+            maxHeapAfterGc = Math.max(maxHeapAfterGc, heapAfterGc);
+            slotsSum += slots;
+            maxSlots = Math.max(maxSlots, slots);
+            heapSum += heap;
+            cpuSum += cpu;
+            overTarget += over ? 1 : 0;
+        }
+
+        void timeline(long elapsedNanos, int slots, double heap, double cpu, PrintStream out, Duration interval) {
+            if (elapsedNanos >= nextReportNanos) {
+                out.printf("[tuning]   t=%3ds slots=%4d heap=%3.0f%% cpu=%3.0f%%%n",
+                        TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), slots, heap * 100, cpu * 100);
+                nextReportNanos += interval.toNanos();
+            }
+        }
+
+        synchronized Result toResult(Setting setting, double throughput, long oom) {
+            int count = Math.max(1, heaps.size());
+            List<Double> sorted = heaps.stream().sorted().toList();
+            double p95 = sorted.isEmpty() ? 0 : sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(sorted.size() * 0.95) - 1));
+            double max = sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1);
+            return new Result(setting, throughput, (double) slotsSum / count, maxSlots, heapSum / count, p95, max,
+                    (double) overTarget / count, maxHeapAfterGc, cpuSum / count, oom);
+        }
+
+    }
+
+    /**
+     * 一组槽位设置
+     *
+     * @param tuner 按资源调节时的调节器，固定槽位时为 null
+     */
+    private record Setting(String name, WorkerConfig.QueueConfig queueConfig, WorkerTuner tuner) {
+    }
+
+    /**
+     * 单个设置的结果，除吞吐与 OOM 外均为 warmup 之后的采样统计
+     *
+     * @param throughput     每秒完成的 Activity 数
+     * @param avgSlots       平均执行中的 Activity 数
+     * @param overTarget     已用堆超过目标的采样占比
+     * @param maxHeapAfterGc GC 后堆占用的最大值
+     * @param oom            分配内存失败的 Activity 数
+     */
+    private record Result(Setting setting, double throughput, double avgSlots, int maxSlots, double avgHeap,
+                          double p95Heap, double maxHeap, double overTarget, double maxHeapAfterGc, double avgCpu,
+                          long oom) {
+    }
+
+    /**
+     * 测试参数，通过 -Dtuning.* 指定
+     */
+    @Data
+    public static class TuningOptions {
+
+        /**
+         * 预先启动的 Workflow 数，需保证 duration 内始终有积压
+         */
+        private int tasks = 2000;
+
+        /**
+         * 每个设置的运行时间
+         */
+        private Duration duration = Duration.ofSeconds(60);
+
+        /**
+         * 开始统计前的爬升时间
+         */
+        private Duration warmup = Duration.ofSeconds(10);
+
+        /**
+         * 每个 Activity 执行期间持有的堆内存
+         */
+        private DataSize memoryPerTask = DataSize.ofMegabytes(16);
+
+        /**
+         * 每个 Activity 消耗的 CPU 时间
+         */
+        private Duration cpuTime = Duration.ofMillis(10);
+
+        /**
+         * 消耗 CPU 后逐步分配并持有内存的时间
+         */
+        private Duration holdTime = Duration.ofSeconds(2);
+
+        /**
+         * 固定槽位设置的 Activity 槽位数
+         */
+        private int fixedSlots = 200;
+
+        private double targetMemoryUsage = 0.8;
+
+        private double targetCpuUsage = 0.9;
+
+        private Duration sampleInterval = Duration.ofMillis(100);
+
+        /**
+         * 输出采样时间线的间隔
+         */
+        private Duration reportInterval = Duration.ofSeconds(5);
+
+        public static TuningOptions fromSystemProperties() {
+            TuningOptions options = new TuningOptions();
+            options.setTasks(Integer.getInteger("tuning.tasks", options.getTasks()));
+            options.setDuration(duration("tuning.duration", options.getDuration()));
+            options.setWarmup(duration("tuning.warmup", options.getWarmup()));
+            String memoryPerTask = System.getProperty("tuning.memory-per-task");
+            if (memoryPerTask != null) {
+                options.setMemoryPerTask(DataSize.parse(memoryPerTask));
+            }
+            options.setCpuTime(duration("tuning.cpu-time", options.getCpuTime()));
+            options.setHoldTime(duration("tuning.hold-time", options.getHoldTime()));
+            options.setFixedSlots(Integer.getInteger("tuning.fixed-slots", options.getFixedSlots()));
+            options.setTargetMemoryUsage(Double.parseDouble(System.getProperty("tuning.target-memory-usage",
+                    String.valueOf(options.getTargetMemoryUsage()))));
+            options.setTargetCpuUsage(Double.parseDouble(System.getProperty("tuning.target-cpu-usage",
+                    String.valueOf(options.getTargetCpuUsage()))));
+            options.setSampleInterval(duration("tuning.sample-interval", options.getSampleInterval()));
+            options.setReportInterval(duration("tuning.report-interval", options.getReportInterval()));
+            return options;
+        }
+
+        private static Duration duration(String key, Duration defaultValue) {
+            String value = System.getProperty(key);
+            return value == null ? defaultValue : DurationStyle.detectAndParse(value);
+        }
+
+        /**
+         * 固定槽位与按资源调节 (其余参数取 worker.tuner.* 的默认值)
+         */
+        List<Setting> settings() {
+            WorkerConfig.QueueConfig fixed = new WorkerConfig.QueueConfig();
+            fixed.setTaskQueue(TASK_QUEUE);
+            fixed.setMaxConcurrentActivityExecutions(fixedSlots);
+            WorkerConfig.TunerConfig tunerConfig = WorkerConfig.load().getTunerConfig();
+            tunerConfig.setResourceBased(true);
+            tunerConfig.setTargetMemoryUsage(targetMemoryUsage);
+            tunerConfig.setTargetCpuUsage(targetCpuUsage);
+            WorkerConfig.QueueConfig tuned = new WorkerConfig.QueueConfig();
+            tuned.setTaskQueue(TASK_QUEUE);
+            return List.of(
+                    new Setting("fixed-" + fixedSlots, fixed, null),
+                    new Setting("resource-based", tuned, tunerConfig.toWorkerTuner()));
+        }
+
+    }
+
+}
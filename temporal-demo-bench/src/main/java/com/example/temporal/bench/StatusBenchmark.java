@@ -0,0 +1,118 @@
+package com.example.temporal.bench;
+
+import com.example.temporal.common.TaskWorkflow;
+import com.example.temporal.model.TaskArgs;
+import com.example.temporal.model.TaskStatus;
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.server.service.TaskDispatchService;
+import com.example.temporal.server.service.TaskStatusCache;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskDispatchService.checkStatus 压测，覆盖每种终态
+ * <p>
+ * cached=false 时每次查询前清除缓存，测量 describe (+ getResult) RPC 的开销；cached=true 测量缓存命中的开销
+ *
+ * @author 0xNPC
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class StatusBenchmark {
+
+    @Param({"SUCCESS", "FAILED", "TIMEOUT", "CANCELED", "KILLED"})
+    public String state;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private BenchEnvironment env;
+
+    private TaskDispatchService taskDispatchService;
+
+    private TaskStatusCache taskStatusCache;
+
+    private String taskId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        env = new BenchEnvironment(new TemporalProperties());
+        taskDispatchService = env.getTaskDispatchService();
+        taskStatusCache = env.getTaskStatusCache();
+        taskId = prepareWorkflow(state);
+
+        TaskStatus status = taskDispatchService.checkStatus(taskId);
+        if (!state.equals(status.getStatus())) {
+            throw new IllegalStateException("准备的 Workflow 状态不符: 期望 " + state + ", 实际 " + status);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public TaskStatus checkStatus() {
+        if (!cached) {
+            taskStatusCache.invalidate(taskId);
+        }
+        return taskDispatchService.checkStatus(taskId);
+    }
+
+    /**
+     * 启动一个 TaskWorkflow 并使其进入指定终态
+     */
+    private String prepareWorkflow(String targetState) {
+        String id = UUID.randomUUID().toString();
+        WorkflowOptions.Builder options = WorkflowOptions.newBuilder()
+                .setTaskQueue(BenchEnvironment.TASK_QUEUE)
+                .setWorkflowId(id);
+        String payload = switch (targetState) {
+            case "SUCCESS" -> "bench command";
+            case "FAILED" -> BenchEnvironment.BenchTaskActivity.FAIL;
+            default -> BenchEnvironment.BenchTaskActivity.BLOCK;
+        };
+        if ("TIMEOUT".equals(targetState)) {
+            options.setWorkflowExecutionTimeout(Duration.ofSeconds(1));
+        }
+        WorkflowClient client = env.getWorkflowClient();
+        TaskWorkflow workflow = client.newWorkflowStub(TaskWorkflow.class, options.build());
+        WorkflowClient.start(workflow::executeTask, payload, TaskArgs.builder().build());
+        WorkflowStub stub = WorkflowStub.fromTyped(workflow);
+        if ("CANCELED".equals(targetState)) {
+            stub.cancel();
+        } else if ("KILLED".equals(targetState)) {
+            stub.terminate("bench");
+        }
+        try {
+            stub.getResult(String.class);
+        } catch (Exception e) {
+            // FAILED/TIMEOUT/CANCELED/KILLED 均以异常结束
+        }
+        return id;
+    }
+
+}
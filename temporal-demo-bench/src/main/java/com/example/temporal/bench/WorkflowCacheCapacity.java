@@ -0,0 +1,246 @@
+package com.example.temporal.bench;
+
+import com.example.temporal.common.TaskActivity;
+import com.example.temporal.common.TaskWorkflow;
+import com.example.temporal.common.TaskWorkflowImpl;
+import com.example.temporal.metrics.MetricsScopes;
+import com.example.temporal.model.TaskArgs;
+import com.example.temporal.worker.WorkerConfig;
+import com.uber.m3.tally.Scope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.client.ActivityCompletionClient;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.MetricsType;
+import io.temporal.worker.Worker;
+import lombok.Data;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Workflow 缓存容量测试：单个 Worker JVM 在不同 WorkerFactory 设置下能同时缓存多少个 TaskWorkflowImpl 执行
+ * <p>
+ * 启动 N 个 TaskWorkflow，Activity 以异步完成方式挂起，所有 Workflow 都停在等待 Activity 结果处；
+ * 此时每个仍在缓存中的 Workflow 占用一个 Workflow 线程。全部 Activity 启动后记录 sticky 缓存大小、强制驱逐数、
+ * 平台线程数与堆占用，再统一完成 Activity 并统计收尾耗时 (被驱逐的 Workflow 需要重放历史)。
+ * 堆占用包含内存版 Temporal 服务保存的历史，各设置之间可比，绝对值偏大。
+ * <pre>
+ * java -Dcache.workflows=3000 -cp temporal-demo-bench/target/benchmarks.jar com.example.temporal.bench.WorkflowCacheCapacity
+ * </pre>
+ *
+ * @author 0xNPC
+ */
+public class WorkflowCacheCapacity {
+
+    private static final String TASK_QUEUE = "queue-cache-bench";
+
+    public static void main(String[] args) throws Exception {
+        CapacityOptions options = CapacityOptions.fromSystemProperties();
+        PrintStream out = System.out;
+        out.println("[cache] " + options);
+
+        List<Result> results = new ArrayList<>();
+        for (Setting setting : options.settings()) {
+            out.printf("[cache] %s ...%n", setting.name());
+            results.add(run(setting, options));
+        }
+
+        out.printf("%n%-18s %9s %9s %9s %10s %9s %9s %12s %10s%n", "setting", "workflows", "held(s)",
+                "cached", "evictions", "threads", "heap(MB)", "KB/workflow", "drain(s)");
+        for (Result result : results) {
+            out.printf("%-18s %9d %9.2f %9.0f %10.0f %9d %9.1f %12.1f %10.2f%n", result.setting().name(),
+                    result.started(), result.holdSeconds(), result.cached(), result.evictions(), result.platformThreads(),
+                    result.heapBytes() / 1024.0 / 1024.0, result.heapBytes() / 1024.0 / Math.max(1, result.started()),
+                    result.drainSeconds());
+        }
+        System.exit(0);
+    }
+
+    private static Result run(Setting setting, CapacityOptions options) throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Scope scope = MetricsScopes.newScope(registry, Duration.ofMillis(500));
+        TestWorkflowEnvironment testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setWorkerFactoryOptions(setting.factoryConfig().toWorkerFactoryOptions())
+                .setMetricsScope(scope)
+                .setUseTimeskipping(false)
+                .build());
+        try {
+            WorkflowClient client = testEnv.getWorkflowClient();
+            HoldingActivity activity = new HoldingActivity(client.newActivityCompletionClient());
+            Worker worker = testEnv.newWorker(TASK_QUEUE);
+            worker.registerWorkflowImplementationTypes(TaskWorkflowImpl.class);
+            worker.registerActivitiesImplementations(activity);
+            testEnv.start();
+            long baselineHeap = usedHeapAfterGc();
+
+            // 1. 启动全部 Workflow，等待其 Activity 全部开始，此时所有 Workflow 都处于等待状态
+            long startNanos = System.nanoTime();
+            List<WorkflowStub> stubs = new ArrayList<>(options.getWorkflows());
+            for (int i = 0; i < options.getWorkflows(); i++) {
+                TaskWorkflow workflow = client.newWorkflowStub(TaskWorkflow.class, WorkflowOptions.newBuilder()
+                        .setTaskQueue(TASK_QUEUE)
+                        .setWorkflowId("cache-" + setting.name() + "-" + i)
+                        .build());
+                WorkflowClient.start(workflow::executeTask, "hold", TaskArgs.builder().build());
+                stubs.add(WorkflowStub.fromTyped(workflow));
+            }
+            long deadline = startNanos + options.getTimeout().toNanos();
+            while (activity.started.get() < options.getWorkflows() && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+            double holdSeconds = (System.nanoTime() - startNanos) / 1e9;
+            // 等待 SDK 指标刷新
+            TimeUnit.SECONDS.sleep(1);
+            long heapBytes = usedHeapAfterGc() - baselineHeap;
+            double cached = sum(registry, MetricsType.STICKY_CACHE_SIZE);
+            double evictions = sum(registry, MetricsType.STICKY_CACHE_THREAD_FORCED_EVICTION);
+            int platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            // 2. 完成全部 Activity，等待 Workflow 结束
+            long drainStart = System.nanoTime();
+            activity.completeAll();
+            CompletableFuture.allOf(stubs.stream()
+                            .map(stub -> stub.getResultAsync(String.class))
+                            .toArray(CompletableFuture[]::new))
+                    .get(options.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            double drainSeconds = (System.nanoTime() - drainStart) / 1e9;
+
+            return new Result(setting, activity.started.get(), holdSeconds, cached, evictions, platformThreads,
+                    heapBytes, drainSeconds);
+        } finally {
+            testEnv.close();
+            scope.close();
+        }
+    }
+
+    private static double sum(MeterRegistry registry, String name) {
+        return registry.find(name).gauges().stream().mapToDouble(Gauge::value).sum()
+                + registry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        System.gc();
+        TimeUnit.MILLISECONDS.sleep(200);
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Activity 以异步完成方式挂起，不占用 Activity 槽位，由 completeAll 统一完成
+     */
+    private static class HoldingActivity implements TaskActivity {
+
+        private final ActivityCompletionClient completionClient;
+
+        private final Queue<byte[]> taskTokens = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger started = new AtomicInteger();
+
+        HoldingActivity(ActivityCompletionClient completionClient) {
+            this.completionClient = completionClient;
+        }
+
+        @Override
+        public String runBusinessLogic(String payload, TaskArgs taskArgs) {
+            ActivityExecutionContext context = Activity.getExecutionContext();
+            taskTokens.add(context.getTaskToken());
+            started.incrementAndGet();
+            context.doNotCompleteOnReturn();
+            return null;
+        }
+
+        void completeAll() {
+            byte[] taskToken;
+            while ((taskToken = taskTokens.poll()) != null) {
+                completionClient.complete(taskToken, "done");
+            }
+        }
+
+    }
+
+    /**
+     * 一组 WorkerFactory 设置
+     */
+    private record Setting(String name, WorkerConfig.FactoryConfig factoryConfig) {
+
+        static Setting of(String name, boolean virtualWorkflowThreads, int workflowCacheSize, int maxWorkflowThreadCount) {
+            WorkerConfig.FactoryConfig config = new WorkerConfig.FactoryConfig();
+            config.setVirtualWorkflowThreads(virtualWorkflowThreads);
+            config.setWorkflowCacheSize(workflowCacheSize);
+            config.setMaxWorkflowThreadCount(maxWorkflowThreadCount);
+            return new Setting(name, config);
+        }
+
+    }
+
+    /**
+     * 单个设置的结果
+     *
+     * @param started         已开始 Activity 的 Workflow 数
+     * @param holdSeconds     从开始启动到全部 Workflow 进入等待的耗时
+     * @param cached          sticky 缓存中的 Workflow 数
+     * @param evictions       因 Workflow 线程不足被强制驱逐的次数
+     * @param platformThreads JVM 平台线程数
+     * @param heapBytes       相对启动前增加的堆占用 (GC 后)
+     * @param drainSeconds    完成全部 Activity 到全部 Workflow 结束的耗时
+     */
+    private record Result(Setting setting, int started, double holdSeconds, double cached, double evictions,
+                          int platformThreads, long heapBytes, double drainSeconds) {
+    }
+
+    /**
+     * 测试参数，通过 -Dcache.* 指定
+     */
+    @Data
+    public static class CapacityOptions {
+
+        /**
+         * 同时挂起的 Workflow 数
+         */
+        private int workflows = 2000;
+
+        /**
+         * 等待全部 Workflow 进入等待 / 全部结束的超时
+         */
+        private Duration timeout = Duration.ofMinutes(3);
+
+        public static CapacityOptions fromSystemProperties() {
+            CapacityOptions options = new CapacityOptions();
+            options.setWorkflows(Integer.getInteger("cache.workflows", options.getWorkflows()));
+            String timeout = System.getProperty("cache.timeout");
+            if (timeout != null) {
+                options.setTimeout(DurationStyle.detectAndParse(timeout));
+            }
+            return options;
+        }
+
+        /**
+         * SDK 默认 (平台线程，缓存与线程均为 600)、平台线程按 N 扩容、虚拟线程按 N 扩容
+         */
+        List<Setting> settings() {
+            return List.of(
+                    Setting.of("platform-default", false, 0, 0),
+                    Setting.of("platform-sized", false, workflows, workflows),
+                    Setting.of("virtual-sized", true, workflows, 0));
+        }
+
+    }
+
+}
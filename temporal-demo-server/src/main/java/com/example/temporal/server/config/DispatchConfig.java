@@ -0,0 +1,26 @@
+package com.example.temporal.server.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 任务下发线程配置
+ *
+ * @author 0xNPC
+ */
+@Configuration
+public class DispatchConfig {
+
+    /**
+     * 下发执行器：每个任务一个虚拟线程，阻塞在 gRPC 调用上时不占用平台线程。
+     * 并发度由 {@link TemporalProperties.Dispatch#getMaxInFlightStarts()} 控制，而不是线程池大小。
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService dispatchExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dispatch-", 0).factory());
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.example.temporal.server.config;
+
+import com.example.temporal.task.TaskActivityImpl;
+import com.example.temporal.worker.WorkerConfig;
+import com.example.temporal.worker.WorkerLifecycle;
+import com.example.temporal.worker.WorkerMetrics;
+import com.example.temporal.worker.WorkerStarter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.client.WorkflowClient;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.tuning.WorkerTuner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 内嵌 Worker 配置
+ * <p>
+ * Worker 与下发共用同一个 WorkflowClient，Temporal 才能把 Eager Workflow Start 的首个 Workflow Task
+ * 直接交给本进程处理，省去一次 Worker 长轮询；同一 Worker 内的 Activity 也会 Eager 派发。
+ *
+ * @author 0xNPC
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "temporal.embedded-worker.enabled", havingValue = "true")
+public class EmbeddedWorkerConfig {
+
+    @Bean
+    public EmbeddedWorker embeddedWorker(WorkflowClient workflowClient, TemporalProperties temporalProperties,
+                                         MeterRegistry meterRegistry) {
+        WorkerConfig workerConfig = WorkerConfig.load();
+        // Workflow 缓存与线程参数沿用 worker.properties 中的 worker.factory.*
+        WorkerFactory factory = WorkerFactory.newInstance(workflowClient,
+                workerConfig.getFactoryConfig().toWorkerFactoryOptions());
+        TaskActivityImpl taskActivity = WorkerStarter.newTaskActivity(workerConfig, workflowClient);
+        if (taskActivity.getResultCache() != null) {
+            WorkerMetrics.bindResultCache(meterRegistry, taskActivity.getResultCache());
+        }
+        // 槽位调节参数沿用 worker.properties 中的 worker.tuner.*
+        WorkerTuner tuner = workerConfig.getTunerConfig().toWorkerTuner();
+        for (String taskQueue : temporalProperties.getEmbeddedWorker().getTaskQueues()) {
+            WorkerConfig.QueueConfig queueConfig = workerConfig.getQueueConfig(taskQueue);
+            // 任务队列级 Activity 限流与下发准入使用同一份配置
+            Double taskQueueActivitiesPerSecond = temporalProperties.getAdmission().limitOf(taskQueue)
+                    .getTaskQueueActivitiesPerSecond();
+            if (queueConfig.getMaxTaskQueueActivitiesPerSecond() <= 0 && taskQueueActivitiesPerSecond != null) {
+                queueConfig.setMaxTaskQueueActivitiesPerSecond(taskQueueActivitiesPerSecond);
+            }
+            Worker worker = factory.newWorker(taskQueue, queueConfig.toWorkerOptions(tuner));
+            WorkerStarter.registerImplementations(worker, taskActivity);
+            log.info("内嵌 Worker 已创建: {}", queueConfig);
+
+            // 快速通道与下发使用同一个后缀
+            String syncLaneSuffix = temporalProperties.getDispatch().getSyncLaneSuffix();
+            if (!syncLaneSuffix.isEmpty()) {
+                WorkerConfig.QueueConfig laneConfig = workerConfig.getSyncLaneQueueConfig(taskQueue + syncLaneSuffix);
+                WorkerStarter.registerSyncLaneImplementations(factory.newWorker(laneConfig.getTaskQueue(),
+                        laneConfig.toWorkerOptions()));
+                log.info("内嵌 Worker 快速通道已创建: {}", laneConfig);
+            }
+        }
+        return new EmbeddedWorker(new WorkerLifecycle(factory, taskActivity),
+                temporalProperties.getEmbeddedWorker().getDrainTimeout());
+    }
+
+    /**
+     * 内嵌 Worker 的启停
+     * <p>
+     * 停机顺序晚于 Web 服务器的优雅停机：先等待进行中的 HTTP 请求 (含等待结果的 SYNC) 结束，再 drain Worker
+     * (超时后中断异步完成模式下的任务并等待其上报失败)，最后才销毁 WorkflowClient。
+     */
+    public static class EmbeddedWorker implements SmartLifecycle {
+
+        /**
+         * 低于 Web 服务器的启停阶段 (DEFAULT_PHASE - 2048)：先于 Web 服务器启动，晚于其停止
+         */
+        private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+        private final WorkerLifecycle lifecycle;
+
+        private final Duration drainTimeout;
+
+        EmbeddedWorker(WorkerLifecycle lifecycle, Duration drainTimeout) {
+            this.lifecycle = lifecycle;
+            this.drainTimeout = drainTimeout;
+        }
+
+        @Override
+        public void start() {
+            lifecycle.start();
+        }
+
+        @Override
+        public void stop() {
+            lifecycle.drain(drainTimeout);
+        }
+
+        @Override
+        public boolean isRunning() {
+            return lifecycle.getState() == WorkerLifecycle.State.RUNNING;
+        }
+
+        @Override
+        public int getPhase() {
+            return PHASE;
+        }
+
+    }
+
+}
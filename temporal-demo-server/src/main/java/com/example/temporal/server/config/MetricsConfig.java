@@ -0,0 +1,129 @@
+package com.example.temporal.server.config;
+
+import com.example.temporal.codec.ClaimCheckPayloadCodec;
+import com.example.temporal.codec.ClaimCheckStats;
+import com.example.temporal.codec.CodecStats;
+import com.example.temporal.codec.CompressionPayloadCodec;
+import com.example.temporal.metrics.MetricsScopes;
+import com.example.temporal.server.controller.vo.response.StatusCacheStatsResp;
+import com.example.temporal.server.service.IdempotencyIndex;
+import com.example.temporal.server.service.TaskEventService;
+import com.example.temporal.server.service.TaskStatusCache;
+import com.uber.m3.tally.NoopScope;
+import com.uber.m3.tally.Scope;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 指标配置
+ * <p>
+ * JVM/GC、Tomcat、HTTP 请求指标由 Spring Boot Actuator 自动注册，统一从 /actuator/prometheus 暴露；
+ * 这里补充 Temporal SDK 指标与已有的缓存、压缩、SSE 统计。
+ *
+ * @author 0xNPC
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Temporal SDK 指标 Scope，设置到 WorkflowServiceStubs，内嵌 Worker 共用
+     */
+    @Bean(destroyMethod = "close")
+    public Scope temporalMetricsScope(MeterRegistry meterRegistry, TemporalProperties temporalProperties) {
+        TemporalProperties.Metrics metrics = temporalProperties.getMetrics();
+        if (!metrics.isSdkEnabled()) {
+            return new NoopScope();
+        }
+        return MetricsScopes.newScope(meterRegistry, metrics.getReportInterval());
+    }
+
+    @Bean
+    public MeterBinder taskStatusCacheMetrics(TaskStatusCache taskStatusCache) {
+        return registry -> {
+            statusCacheCounter(registry, taskStatusCache, "hit", StatusCacheStatsResp::getHits);
+            statusCacheCounter(registry, taskStatusCache, "miss", StatusCacheStatsResp::getMisses);
+            statusCacheCounter(registry, taskStatusCache, "coalesced", StatusCacheStatsResp::getCoalesced);
+            Gauge.builder("temporal.status_cache.size", taskStatusCache, cache -> cache.stats().getSize())
+                    .description("任务状态缓存项数量（估算）")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder idempotencyIndexMetrics(IdempotencyIndex idempotencyIndex) {
+        return registry -> Gauge.builder("temporal.idempotency.size", idempotencyIndex, IdempotencyIndex::size)
+                .description("幂等键本地索引项数量（估算）")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder compressionCodecMetrics(CompressionPayloadCodec compressionPayloadCodec) {
+        return registry -> {
+            codecCounter(registry, compressionPayloadCodec, "temporal.codec.payloads", "compressed",
+                    CodecStats::getCompressedPayloads);
+            codecCounter(registry, compressionPayloadCodec, "temporal.codec.payloads", "skipped",
+                    CodecStats::getSkippedPayloads);
+            codecCounter(registry, compressionPayloadCodec, "temporal.codec.bytes", "before", CodecStats::getBytesBefore);
+            codecCounter(registry, compressionPayloadCodec, "temporal.codec.bytes", "after", CodecStats::getBytesAfter);
+            codecCounter(registry, compressionPayloadCodec, "temporal.codec.time.ms", "encode", CodecStats::getEncodeTimeMs);
+            codecCounter(registry, compressionPayloadCodec, "temporal.codec.time.ms", "decode", CodecStats::getDecodeTimeMs);
+        };
+    }
+
+    @Bean
+    public MeterBinder claimCheckCodecMetrics(ClaimCheckPayloadCodec claimCheckPayloadCodec) {
+        return registry -> {
+            claimCheckCounter(registry, claimCheckPayloadCodec, "temporal.claim_check.payloads", "offloaded",
+                    ClaimCheckStats::getOffloadedPayloads);
+            claimCheckCounter(registry, claimCheckPayloadCodec, "temporal.claim_check.bytes", "offloaded",
+                    ClaimCheckStats::getOffloadedBytes);
+            claimCheckCounter(registry, claimCheckPayloadCodec, "temporal.claim_check.reads", "cache_hit",
+                    ClaimCheckStats::getCacheHits);
+            claimCheckCounter(registry, claimCheckPayloadCodec, "temporal.claim_check.reads", "store",
+                    ClaimCheckStats::getStoreReads);
+            claimCheckCounter(registry, claimCheckPayloadCodec, "temporal.claim_check.bytes", "store_read",
+                    ClaimCheckStats::getStoreReadBytes);
+            Gauge.builder("temporal.claim_check.cache.bytes", claimCheckPayloadCodec, c -> c.stats().getCachedBytes())
+                    .description("Claim-check 本地缓存占用的字节数")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder taskEventMetrics(TaskEventService taskEventService) {
+        return registry -> Gauge.builder("temporal.events.watches", taskEventService, TaskEventService::watchCount)
+                .description("SSE 正在等待结果的任务数")
+                .register(registry);
+    }
+
+    private static void statusCacheCounter(MeterRegistry registry, TaskStatusCache cache, String result,
+                                           ToDoubleFunction<StatusCacheStatsResp> value) {
+        FunctionCounter.builder("temporal.status_cache.requests", cache, c -> value.applyAsDouble(c.stats()))
+                .description("任务状态查询次数")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static void codecCounter(MeterRegistry registry, CompressionPayloadCodec codec, String name, String kind,
+                                     ToDoubleFunction<CodecStats> value) {
+        FunctionCounter.builder(name, codec, c -> value.applyAsDouble(c.stats()))
+                .description("Payload 压缩统计")
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+    private static void claimCheckCounter(MeterRegistry registry, ClaimCheckPayloadCodec codec, String name, String kind,
+                                          ToDoubleFunction<ClaimCheckStats> value) {
+        FunctionCounter.builder(name, codec, c -> value.applyAsDouble(c.stats()))
+                .description("Claim-check 转存统计")
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+}
@@ -1,40 +1,141 @@
 package com.example.temporal.server.config;
 
+import com.example.temporal.codec.ClaimCheckPayloadCodec;
+import com.example.temporal.codec.CompressionPayloadCodec;
+import com.example.temporal.codec.DataConverters;
+import com.example.temporal.codec.LocalFileBlobStore;
+import com.example.temporal.codec.ModelBinaryPayloadConverter;
+import com.example.temporal.server.grpc.RoundRobinManagedChannel;
+import com.uber.m3.tally.Scope;
+import io.grpc.ManagedChannel;
 import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.handler.ssl.SslContext;
 import io.grpc.netty.shaded.io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.converter.DataConverter;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.net.ssl.SSLException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Temporal服务配置类
  *
  * @author 0xNPC
  */
+@Slf4j
 @Configuration
 @EnableConfigurationProperties(TemporalProperties.class)
 public class TemporalConfig {
 
     @Bean
-    public WorkflowClient workflowClient(TemporalProperties temporalProperties) throws SSLException {
-        String frontendAddress = temporalProperties.getFrontendAddress();
+    public CompressionPayloadCodec compressionPayloadCodec(TemporalProperties temporalProperties) {
+        TemporalProperties.Codec codec = temporalProperties.getCodec();
+        return new CompressionPayloadCodec(codec.isCompressionEnabled(), codec.getCompressionThresholdBytes(),
+                codec.getCompressionMaxRatio(), codec.getCompressionLevel());
+    }
+
+    @Bean
+    public ClaimCheckPayloadCodec claimCheckPayloadCodec(TemporalProperties temporalProperties) {
+        TemporalProperties.Codec codec = temporalProperties.getCodec();
+        return new ClaimCheckPayloadCodec(codec.isClaimCheckEnabled(), codec.getClaimCheckThresholdBytes(),
+                codec.getClaimCheckCacheSize().toBytes(), new LocalFileBlobStore(Path.of(codec.getClaimCheckDir())));
+    }
+
+    /**
+     * 到 Temporal Frontend 的 gRPC 连接，channelCount 条连接间轮询
+     */
+    @Bean(destroyMethod = "shutdown")
+    public RoundRobinManagedChannel temporalChannel(TemporalProperties temporalProperties) throws SSLException {
+        TemporalProperties.Grpc grpc = temporalProperties.getGrpc();
+        SslContext sslContext = null;
+        if (temporalProperties.isTlsEnabled()) {
+            // 2. 如果是自签名证书，使用非验证模式
+            sslContext = GrpcSslContexts.forClient()
+                    .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                    .build();
+        }
+        List<ManagedChannel> channels = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, grpc.getChannelCount()); i++) {
+            // Temporal Frontend 地址，gRPC内部端口是7233
+            NettyChannelBuilder builder = NettyChannelBuilder.forTarget(temporalProperties.getFrontendAddress())
+                    .keepAliveTime(grpc.getKeepAliveTime().toMillis(), TimeUnit.MILLISECONDS)
+                    .keepAliveTimeout(grpc.getKeepAliveTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .keepAliveWithoutCalls(grpc.isKeepAlivePermitWithoutStream())
+                    .maxInboundMessageSize((int) grpc.getMaxInboundMessageSize().toBytes());
+            if (sslContext != null) {
+                builder.sslContext(sslContext);
+            } else {
+                builder.usePlaintext();
+            }
+            channels.add(builder.build());
+        }
+        return new RoundRobinManagedChannel(channels);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public WorkflowServiceStubs workflowServiceStubs(TemporalProperties temporalProperties,
+                                                     RoundRobinManagedChannel temporalChannel,
+                                                     Scope temporalMetricsScope) {
+        TemporalProperties.Grpc grpc = temporalProperties.getGrpc();
         // 连接 Temporal Server
         WorkflowServiceStubs service = WorkflowServiceStubs.newServiceStubs(
                 WorkflowServiceStubsOptions.newBuilder()
-                        // Temporal Frontend 地址，gRPC内部端口是7233
-                        .setTarget(frontendAddress)
-                        // 2. 如果是自签名证书，使用非验证模式
-                        .setSslContext(GrpcSslContexts.forClient()
-                                .trustManager(InsecureTrustManagerFactory.INSTANCE)
-                                .build()
-                        )
+                        .setChannel(temporalChannel)
+                        .setRpcTimeout(grpc.getRpcTimeout())
+                        .setRpcLongPollTimeout(grpc.getRpcLongPollTimeout())
+                        .setRpcQueryTimeout(grpc.getRpcQueryTimeout())
+                        // SDK 指标接入 Micrometer
+                        .setMetricsScope(temporalMetricsScope)
                         .build());
-        return WorkflowClient.newInstance(service);
+        if (grpc.isWarmUp()) {
+            warmUp(temporalProperties, temporalChannel, service);
+        }
+        return service;
+    }
+
+    @Bean
+    public WorkflowClient workflowClient(TemporalProperties temporalProperties,
+                                         WorkflowServiceStubs workflowServiceStubs,
+                                         CompressionPayloadCodec compressionPayloadCodec,
+                                         ClaimCheckPayloadCodec claimCheckPayloadCodec) {
+        // Payload 编解码需与 Worker 保持一致；编码从列表末尾开始，先压缩再转存
+        DataConverter dataConverter = DataConverters.newDataConverter(
+                new ModelBinaryPayloadConverter(temporalProperties.getCodec().isBinaryModelEnabled()),
+                List.of(claimCheckPayloadCodec, compressionPayloadCodec));
+        return WorkflowClient.newInstance(workflowServiceStubs, WorkflowClientOptions.newBuilder()
+                .setDataConverter(dataConverter)
+                .build());
+    }
+
+    /**
+     * 预热：建立全部连接并做一次健康检查，失败只告警，Temporal 暂不可用时不阻止启动
+     */
+    private static void warmUp(TemporalProperties temporalProperties, RoundRobinManagedChannel channel,
+                               WorkflowServiceStubs service) {
+        Duration timeout = temporalProperties.getGrpc().getWarmUpTimeout();
+        long startTime = System.currentTimeMillis();
+        try {
+            int ready = channel.awaitReady(timeout);
+            service.healthCheck();
+            log.info("Temporal 连接预热完成: Target={}, Ready={}/{}, Cost={}ms", temporalProperties.getFrontendAddress(),
+                    ready, channel.size(), System.currentTimeMillis() - startTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Temporal 连接预热失败，首批请求将在调用时建立连接: Target={}", temporalProperties.getFrontendAddress(), e);
+        }
     }
 
 }
@@ -1,7 +1,15 @@
 package com.example.temporal.server.config;
 
+import com.example.temporal.server.constants.SyncMode;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static com.example.temporal.server.config.TemporalProperties.PREFIX;
 
@@ -21,4 +29,441 @@ public class TemporalProperties {
      */
     private String frontendAddress = "127.0.0.1:7233";
 
+    /**
+     * 是否使用 TLS 连接 Frontend（自签名证书不校验），本地测试服务需关闭
+     */
+    private boolean tlsEnabled = true;
+
+    /**
+     * gRPC 连接配置
+     */
+    private Grpc grpc = new Grpc();
+
+    /**
+     * 任务下发配置
+     */
+    private Dispatch dispatch = new Dispatch();
+
+    /**
+     * 按 Region 的准入控制 (限流与在途上限)
+     */
+    private Admission admission = new Admission();
+
+    /**
+     * Region 路由配置
+     */
+    private Routing routing = new Routing();
+
+    /**
+     * 幂等键索引配置
+     */
+    private Idempotency idempotency = new Idempotency();
+
+    /**
+     * 任务状态缓存配置
+     */
+    private StatusCache statusCache = new StatusCache();
+
+    /**
+     * 任务完成事件推送配置
+     */
+    private Events events = new Events();
+
+    /**
+     * 内嵌 Worker 配置
+     */
+    private EmbeddedWorker embeddedWorker = new EmbeddedWorker();
+
+    /**
+     * Payload 编解码配置
+     */
+    private Codec codec = new Codec();
+
+    /**
+     * 指标配置
+     */
+    private Metrics metrics = new Metrics();
+
+    @Data
+    public static class Dispatch {
+
+        /**
+         * 单次批量下发允许的最大任务数
+         */
+        private int batchMaxSize = 1000;
+
+        /**
+         * 全局同时进行中的 Workflow 启动请求数上限（所有批量请求共享）
+         */
+        private int maxInFlightStarts = 64;
+
+        /**
+         * SYNC 模式等待 Workflow 结果的最长时间，超时后返回 RunID，调用方改为轮询状态。
+         * 需小于 spring.mvc.async.request-timeout
+         */
+        private Duration syncWaitTimeout = Duration.ofSeconds(30);
+
+        /**
+         * SYNC 模式的执行方式
+         */
+        private SyncMode syncMode = SyncMode.WORKFLOW;
+
+        /**
+         * SYNC 快速通道队列后缀：SYNC 下发到 &lt;任务队列&gt;+后缀，由独立的 Poller 与槽位处理，不被长任务占满的槽位阻塞；
+         * 需与 Worker 端 worker.sync-lane.suffix 一致，为空 (默认) 表示 SYNC 与 ASYNC 共用同一队列。
+         * 开启时先让所有 Worker 监听快速通道队列，再配置 Server 端后缀，否则 SYNC 会下发到无人监听的队列
+         */
+        private String syncLaneSuffix = "";
+
+        /**
+         * SESSION 模式下会话 Workflow 单次运行处理的最大请求数，达到后 continue-as-new
+         */
+        private int sessionMaxUpdatesPerRun = 1000;
+
+        /**
+         * 批量 Workflow 单次下发允许的最大任务数（全部 payload 会写入首次启动参数，受单个 Payload 大小限制）
+         */
+        private int batchWorkflowMaxSize = 20000;
+
+        /**
+         * 批量 Workflow 全部指令的 UTF-8 总字节数上限：指令列表写入启动参数，每次 continue-as-new 再写入剩余部分，
+         * 需低于 Temporal 单个 Payload 的限制 (默认 2MB) 并为序列化开销留出余量
+         */
+        private DataSize batchWorkflowMaxBytes = DataSize.ofMegabytes(1);
+
+        /**
+         * 批量 Workflow 允许的最大并发
+         */
+        private int batchWorkflowMaxParallelism = 100;
+
+        /**
+         * 批量 Workflow 每次运行处理的任务数，处理完后 continue-as-new
+         */
+        private int batchWorkflowItemsPerRun = 500;
+
+    }
+
+    @Data
+    public static class StatusCache {
+
+        /**
+         * 缓存的最大任务数，超出后按 W-TinyLFU 淘汰
+         */
+        private long maxSize = 10000;
+
+        /**
+         * 非终态（RUNNING 等）结果的缓存时间；终态结果缓存至被淘汰
+         */
+        private Duration runningTtl = Duration.ofSeconds(1);
+
+    }
+
+    @Data
+    public static class Events {
+
+        /**
+         * SSE 连接的最长保持时间，超时后由客户端重连
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * 单个连接允许订阅的最大任务数
+         */
+        private int maxTaskIds = 1000;
+
+        /**
+         * 单次结果长轮询的超时时间，超时后仍有订阅者则重新发起；最后一个订阅者离开后，
+         * 进行中的长轮询最多再持续这么久
+         */
+        private Duration pollTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 长轮询或终态查询因瞬时错误失败后的首次重试间隔，之后逐次翻倍，不超过 pollTimeout
+         */
+        private Duration pollRetryBackoff = Duration.ofSeconds(1);
+
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /**
+         * 本地索引的最大幂等键数，超出后按 W-TinyLFU 淘汰
+         */
+        private long maxSize = 100000;
+
+        /**
+         * 幂等键在本地索引中的保留时间；过期后重复提交由 Temporal 的 WorkflowId 去重兜底
+         */
+        private Duration ttl = Duration.ofHours(1);
+
+    }
+
+    @Data
+    public static class Routing {
+
+        /**
+         * 是否启用 Region 注册表；关闭时 region 直接作为任务队列
+         */
+        private boolean enabled = false;
+
+        /**
+         * 逻辑 Region -> 任务队列，未注册的 Region 直接作为任务队列
+         */
+        private Map<String, RegionRoute> regions = new HashMap<>();
+
+        /**
+         * 积压与 Poller 的采样间隔 (DescribeTaskQueue)
+         */
+        private Duration sampleInterval = Duration.ofSeconds(5);
+
+        /**
+         * 首选队列积压达到该值后，允许故障转移的任务才会改投其它队列，避免来回切换
+         */
+        private long failoverBacklogThreshold = 100;
+
+    }
+
+    @Data
+    public static class RegionRoute {
+
+        /**
+         * 该 Region 可用的任务队列，第一个为首选队列，其余为故障转移候选
+         */
+        private List<String> taskQueues = new ArrayList<>();
+
+    }
+
+    @Data
+    public static class Admission {
+
+        /**
+         * 是否启用准入控制
+         */
+        private boolean enabled = true;
+
+        /**
+         * 所有 Region 的默认限制
+         */
+        private RegionLimit defaults = RegionLimit.unlimited();
+
+        /**
+         * 按 Region 覆盖，未配置的字段沿用 defaults
+         */
+        private Map<String, RegionLimit> regions = new HashMap<>();
+
+        /**
+         * 因在途上限被拒绝时返回的 Retry-After
+         */
+        private Duration inFlightRetryAfter = Duration.ofSeconds(1);
+
+        /**
+         * 合并 defaults 与 Region 覆盖后的限制
+         */
+        public RegionLimit limitOf(String region) {
+            RegionLimit override = regions.get(region);
+            if (override == null) {
+                return defaults;
+            }
+            RegionLimit merged = new RegionLimit();
+            merged.setRatePerSecond(override.getRatePerSecond() != null ? override.getRatePerSecond() : defaults.getRatePerSecond());
+            merged.setBurst(override.getBurst() != null ? override.getBurst() : defaults.getBurst());
+            merged.setMaxInFlight(override.getMaxInFlight() != null ? override.getMaxInFlight() : defaults.getMaxInFlight());
+            merged.setTaskQueueActivitiesPerSecond(override.getTaskQueueActivitiesPerSecond() != null
+                    ? override.getTaskQueueActivitiesPerSecond() : defaults.getTaskQueueActivitiesPerSecond());
+            return merged;
+        }
+
+    }
+
+    /**
+     * 单个 Region 的限制，0 表示不限制；Region 覆盖中为 null 的字段沿用 defaults
+     * <p>
+     * 键名与 Worker 端一致 (temporal.admission.*)，Server 与 Worker 可加载同一份配置文件
+     */
+    @Data
+    public static class RegionLimit {
+
+        public static RegionLimit unlimited() {
+            RegionLimit limit = new RegionLimit();
+            limit.setRatePerSecond(0D);
+            limit.setBurst(0);
+            limit.setMaxInFlight(0);
+            limit.setTaskQueueActivitiesPerSecond(0D);
+            return limit;
+        }
+
+        /**
+         * 令牌桶速率：每秒允许下发的任务数
+         */
+        private Double ratePerSecond;
+
+        /**
+         * 令牌桶容量 (允许的突发量)，0 表示等于 ratePerSecond
+         */
+        private Integer burst;
+
+        /**
+         * 同时进行中的下发数上限，SYNC 在等待结果期间一直计入
+         */
+        private Integer maxInFlight;
+
+        /**
+         * 该任务队列每秒最多派发的 Activity 数，由 Temporal 服务端对所有 Worker 统一限流
+         */
+        private Double taskQueueActivitiesPerSecond;
+
+    }
+
+    @Data
+    public static class EmbeddedWorker {
+
+        /**
+         * 是否在 Server 进程内启动 Worker，与下发共用同一个 WorkflowClient
+         */
+        private boolean enabled = false;
+
+        /**
+         * 内嵌 Worker 监听的任务队列 (Region)，槽位等参数沿用 worker.properties 中的同名队列配置
+         */
+        private List<String> taskQueues = new ArrayList<>();
+
+        /**
+         * 是否对内嵌队列使用 Eager Workflow Start：首个 Workflow Task 随 start 响应直接返回给本地 Worker
+         */
+        private boolean eagerStart = true;
+
+        /**
+         * 停机宽限期：停止轮询后等待进行中任务完成的最长时间，超时后中断剩余任务
+         */
+        private Duration drainTimeout = Duration.ofSeconds(30);
+
+    }
+
+    @Data
+    public static class Codec {
+
+        /**
+         * 是否压缩 Payload；关闭时仍能解码已压缩的 Payload。所有 Server/Worker 都能解码后再开启
+         */
+        private boolean compressionEnabled = false;
+
+        /**
+         * 压缩阈值，序列化后小于该大小的 Payload 不压缩
+         */
+        private int compressionThresholdBytes = 4096;
+
+        /**
+         * 压缩后/压缩前 的最大比例，压缩效果不足时保留原始 Payload
+         */
+        private double compressionMaxRatio = 0.9;
+
+        /**
+         * 压缩级别 (0~9)，默认 1 优先速度
+         */
+        private int compressionLevel = 1;
+
+        /**
+         * 模型类 (TaskArgs 等) 是否以紧凑二进制格式写出；关闭时仍可读取二进制 Payload
+         */
+        private boolean binaryModelEnabled = false;
+
+        /**
+         * 是否把大 Payload 转存到外部存储 (claim-check)；关闭时仍能读取已转存的 Payload
+         */
+        private boolean claimCheckEnabled = false;
+
+        /**
+         * 转存阈值，压缩后仍不小于该大小的 Payload 写入外部存储，History 中只保留引用
+         */
+        private int claimCheckThresholdBytes = 256 * 1024;
+
+        /**
+         * 本地文件存储目录，Server 与 Worker 需指向同一共享目录
+         */
+        private String claimCheckDir = System.getProperty("java.io.tmpdir") + "/temporal-demo-blobs";
+
+        /**
+         * 已读取 Payload 的本地缓存大小
+         */
+        private DataSize claimCheckCacheSize = DataSize.ofMegabytes(64);
+
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * 是否将 Temporal SDK 指标 (gRPC 请求、长轮询、内嵌 Worker 槽位等) 接入 Micrometer
+         */
+        private boolean sdkEnabled = true;
+
+        /**
+         * SDK 指标从 tally 刷新到 Micrometer 的间隔
+         */
+        private Duration reportInterval = Duration.ofSeconds(10);
+
+        /**
+         * 指标中按原值作为 region 标签的 Region；routing / admission / embedded-worker 中配置的 Region 自动包含，
+         * 其余 Region 的标签记为 other，避免客户端传入的任意 region 产生无限多的时间序列
+         */
+        private List<String> regions = new ArrayList<>();
+
+    }
+
+    @Data
+    public static class Grpc {
+
+        /**
+         * 连接数，RPC 在多条连接间轮询，用于突破单连接的 HTTP/2 max-concurrent-streams 限制
+         */
+        private int channelCount = 1;
+
+        /**
+         * 空闲时发送 keepalive ping 的间隔，需大于服务端允许的最小间隔
+         */
+        private Duration keepAliveTime = Duration.ofSeconds(30);
+
+        /**
+         * keepalive ping 的应答超时，超时则断开重连
+         */
+        private Duration keepAliveTimeout = Duration.ofSeconds(15);
+
+        /**
+         * 无进行中的 RPC 时也发送 keepalive，避免空闲连接被中间设备静默断开
+         */
+        private boolean keepAlivePermitWithoutStream = true;
+
+        /**
+         * 单个响应的最大字节数（如较大的 Workflow 历史）
+         */
+        private DataSize maxInboundMessageSize = DataSize.ofMegabytes(128);
+
+        /**
+         * 普通 RPC 超时 (start、describe 等)
+         */
+        private Duration rpcTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 长轮询 RPC 超时 (getResult 等待结果)
+         */
+        private Duration rpcLongPollTimeout = Duration.ofSeconds(70);
+
+        /**
+         * Query RPC 超时
+         */
+        private Duration rpcQueryTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 启动时预先建立全部连接并做健康检查，首批请求不再承担握手开销
+         */
+        private boolean warmUp = true;
+
+        /**
+         * 预热的最长等待时间，超时只打印告警，不阻止启动
+         */
+        private Duration warmUpTimeout = Duration.ofSeconds(10);
+
+    }
+
 }
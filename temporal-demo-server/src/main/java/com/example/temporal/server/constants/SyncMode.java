@@ -0,0 +1,20 @@
+package com.example.temporal.server.constants;
+
+/**
+ * 同步任务的执行方式
+ *
+ * @author 0xNPC
+ */
+public enum SyncMode {
+
+    /**
+     * 每个请求启动一个独立的 PingWorkflow
+     */
+    WORKFLOW,
+
+    /**
+     * 请求以 Update 的方式发送到按 Region 常驻的 PingSessionWorkflow
+     */
+    SESSION
+
+}
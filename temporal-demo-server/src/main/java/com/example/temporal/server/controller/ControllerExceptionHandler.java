@@ -0,0 +1,51 @@
+package com.example.temporal.server.controller;
+
+import com.example.temporal.server.exception.AdmissionRejectedException;
+import com.example.temporal.server.exception.InvalidRequestException;
+import io.temporal.client.WorkflowNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Controller 异常处理
+ *
+ * @author 0xNPC
+ */
+@Slf4j
+@RestControllerAdvice
+public class ControllerExceptionHandler {
+
+    /**
+     * 准入拒绝：429 + Retry-After (秒，向上取整)，调用方据此退避而不是立即重试
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> handleAdmissionRejected(AdmissionRejectedException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        log.debug("请求被准入控制拒绝: Region={}, Reason={}, RetryAfter={}s", e.getRegion(), e.getReason(), retryAfterSeconds);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(e.getMessage());
+    }
+
+    /**
+     * 参数不合法 (如批量任务数超过上限)：400
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<String> handleInvalidRequest(InvalidRequestException e) {
+        log.debug("请求参数不合法: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    /**
+     * 任务不存在或已结束 (如取消已完成的任务)：404
+     */
+    @ExceptionHandler(WorkflowNotFoundException.class)
+    public ResponseEntity<String> handleWorkflowNotFound(WorkflowNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+}
@@ -1,8 +1,19 @@
 package com.example.temporal.server.controller;
 
+import com.example.temporal.codec.CodecStats;
+import com.example.temporal.codec.CompressionPayloadCodec;
+import com.example.temporal.model.TaskProgress;
 import com.example.temporal.model.TaskStatus;
+import com.example.temporal.server.controller.vo.request.BatchTaskReq;
+import com.example.temporal.server.controller.vo.request.BatchWorkflowReq;
 import com.example.temporal.server.controller.vo.request.TaskReq;
+import com.example.temporal.server.controller.vo.response.StatusCacheStatsResp;
+import com.example.temporal.server.controller.vo.response.TaskDispatchResp;
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.server.exception.InvalidRequestException;
 import com.example.temporal.server.service.TaskDispatchService;
+import com.example.temporal.server.service.TaskEventService;
+import com.example.temporal.server.service.TaskStatusCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -10,9 +21,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Temporal Controller
@@ -28,21 +43,90 @@ public class TemporalController {
 
     private final TaskDispatchService taskDispatchService;
 
+    private final TaskStatusCache taskStatusCache;
+
+    private final TaskEventService taskEventService;
+
+    private final TemporalProperties temporalProperties;
+
+    private final CompressionPayloadCodec compressionPayloadCodec;
+
     @Operation(summary = "启动任务", description = "提供指定的任务")
     @PostMapping(value = "/")
-    public ResponseEntity<String> runTask(@Valid @RequestBody TaskReq taskReq) {
+    public CompletableFuture<ResponseEntity<String>> runTask(@Valid @RequestBody TaskReq taskReq) {
+        // 提供幂等键时以其作为 taskId (WorkflowId)，客户端重试不会重复创建任务
+        boolean idempotent = StringUtils.hasText(taskReq.getIdempotencyKey());
+        String key = idempotent ? taskReq.getIdempotencyKey() : UUID.randomUUID().toString();
+        // 会话模式的 taskId 是 Update ID，加前缀以便状态/进度/事件接口明确拒绝，而不是返回 NOT_FOUND
+        String taskId = taskDispatchService.isSession(taskReq.getTaskType())
+                ? TaskDispatchService.SESSION_TASK_ID_PREFIX + key : key;
+        // 返回 CompletableFuture，Servlet 线程立即释放，SYNC 等待期间不占用 Tomcat 线程
+        return taskDispatchService.dispatchTask(taskReq.getTaskType(), taskReq.getRegion(), taskId, taskReq.getCommand(),
+                        taskReq.isAllowFailover(), idempotent)
+                .thenApply(result -> ResponseEntity.ok(taskId + ": " + result));
+    }
+
+    @Operation(summary = "批量启动任务", description = "并发下发一批异步任务，返回每个任务的下发结果")
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<TaskDispatchResp>> runBatch(@Valid @RequestBody BatchTaskReq batchTaskReq) {
+        List<TaskDispatchResp> results = taskDispatchService.dispatchBatch(batchTaskReq.getTasks());
+        return ResponseEntity.ok(results);
+    }
+
+
+    @Operation(summary = "批量 Workflow", description = "以单个 Workflow 下发一批任务，Workflow 内部有限并发执行")
+    @PostMapping(value = "/batch-workflow")
+    public ResponseEntity<String> runBatchWorkflow(@Valid @RequestBody BatchWorkflowReq batchWorkflowReq) {
         String taskId = UUID.randomUUID().toString();
-        String result = taskDispatchService.dispatchTask(taskReq.getTaskType(), taskReq.getRegion(), taskId, taskReq.getCommand());
-        return ResponseEntity.ok(taskId + ": " + result);
+        String runId = taskDispatchService.dispatchBatchWorkflow(batchWorkflowReq.getRegion(), taskId,
+                batchWorkflowReq.getCommands(), batchWorkflowReq.getParallelism());
+        return ResponseEntity.ok(taskId + ": " + runId);
     }
 
 
-    @Operation(summary = "任务状态", description = "查询任务状态")
+    @Operation(summary = "任务状态", description = "查询任务状态；会话模式 (session: 前缀) 的任务没有独立 Workflow，返回 400")
     @GetMapping(value = "/{taskId}/status", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<TaskStatus> getTaskStatus(@Valid @PathVariable(name = "taskId") String taskId) {
         TaskStatus taskStatus = taskDispatchService.checkStatus(taskId);
         return ResponseEntity.ok(taskStatus);
     }
 
+    @Operation(summary = "任务进度", description = "查询执行中任务最近一次心跳上报的进度，没有进度时返回 204")
+    @GetMapping(value = "/{taskId}/progress", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskProgress> getTaskProgress(@PathVariable(name = "taskId") String taskId) {
+        return taskDispatchService.getProgress(taskId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @Operation(summary = "取消任务", description = "请求取消任务，执行中的 Activity 在下一次心跳时停止")
+    @DeleteMapping(value = "/{taskId}")
+    public ResponseEntity<String> cancelTask(@PathVariable(name = "taskId") String taskId,
+                                             @RequestParam(name = "reason", required = false) String reason) {
+        taskDispatchService.cancelTask(taskId, reason);
+        return ResponseEntity.accepted().body(taskId + ": CANCEL_REQUESTED");
+    }
+
+    @Operation(summary = "任务完成事件", description = "SSE 推送订阅任务的终态，替代轮询状态接口")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeEvents(@RequestParam(name = "taskIds") List<String> taskIds) {
+        int maxTaskIds = temporalProperties.getEvents().getMaxTaskIds();
+        if (taskIds.isEmpty() || taskIds.size() > maxTaskIds) {
+            throw new InvalidRequestException("taskIds 数量需在 1~" + maxTaskIds + " 之间");
+        }
+        return taskEventService.subscribe(taskIds);
+    }
+
+    @Operation(summary = "状态缓存统计", description = "查询任务状态缓存的命中/未命中/合并次数")
+    @GetMapping(value = "/status-cache/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StatusCacheStatsResp> getStatusCacheStats() {
+        return ResponseEntity.ok(taskStatusCache.stats());
+    }
+
+    @Operation(summary = "Payload 压缩统计", description = "查询 Payload 压缩节省的字节数与编解码耗时")
+    @GetMapping(value = "/codec/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CodecStats> getCodecStats() {
+        return ResponseEntity.ok(compressionPayloadCodec.stats());
+    }
 
 }
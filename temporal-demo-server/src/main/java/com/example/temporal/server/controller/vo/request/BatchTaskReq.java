@@ -0,0 +1,39 @@
+package com.example.temporal.server.controller.vo.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量启动任务请求
+ *
+ * @author 0xNPC
+ */
+@Data
+@Schema(title = "批量启动任务请求")
+public class BatchTaskReq {
+
+    @Valid
+    @NotEmpty
+    @Schema(title = "任务列表，可跨 Region")
+    private List<BatchTaskItem> tasks;
+
+    @Data
+    @Schema(title = "批量任务项")
+    public static class BatchTaskItem {
+
+        @NotBlank
+        @Schema(title = "Region", defaultValue = "queue-beijing")
+        private String region;
+
+        @NotBlank
+        @Schema(title = "命令")
+        private String command;
+
+    }
+
+}
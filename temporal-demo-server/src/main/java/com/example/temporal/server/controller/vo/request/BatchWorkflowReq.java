@@ -0,0 +1,30 @@
+package com.example.temporal.server.controller.vo.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量 Workflow 请求
+ *
+ * @author 0xNPC
+ */
+@Data
+@Schema(title = "批量 Workflow 请求")
+public class BatchWorkflowReq {
+
+    @NotBlank
+    @Schema(title = "Region", defaultValue = "queue-beijing")
+    private String region;
+
+    @NotEmpty
+    @Schema(title = "命令列表")
+    private List<String> commands;
+
+    @Schema(title = "并发数", defaultValue = "10")
+    private Integer parallelism = 10;
+
+}
@@ -2,6 +2,8 @@ package com.example.temporal.server.controller.vo.request;
 
 import com.example.temporal.server.constants.TaskType;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 /**
@@ -13,6 +15,7 @@ import lombok.Data;
 @Schema(title = "启动任务请求")
 public class TaskReq {
 
+    @NotBlank
     @Schema(title = "Region", defaultValue = "queue-beijing")
     private String region;
 
@@ -22,4 +25,12 @@ public class TaskReq {
     @Schema(title = "任务类型", defaultValue = "ASYNC")
     private TaskType taskType = TaskType.ASYNC;
 
+    @Schema(title = "是否允许故障转移", description = "首选队列积压过高或无 Worker 时，允许改投该 Region 的其它队列",
+            defaultValue = "false")
+    private boolean allowFailover;
+
+    @Size(max = 255)
+    @Schema(title = "幂等键", description = "作为 taskId (WorkflowId) 使用，重复提交返回已有执行而不是新建任务；不传则随机生成")
+    private String idempotencyKey;
+
 }
@@ -0,0 +1,34 @@
+package com.example.temporal.server.controller.vo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 状态缓存统计
+ *
+ * @author 0xNPC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(title = "状态缓存统计")
+public class StatusCacheStatsResp {
+
+    @Schema(title = "命中已完成的缓存项次数")
+    private long hits;
+
+    @Schema(title = "未命中并发起 RPC 的次数")
+    private long misses;
+
+    @Schema(title = "合并到进行中 RPC 的次数")
+    private long coalesced;
+
+    @Schema(title = "当前缓存项数量（估算）")
+    private long size;
+
+    @Schema(title = "免于发起 RPC 的请求占比")
+    private double rpcSavedRatio;
+
+}
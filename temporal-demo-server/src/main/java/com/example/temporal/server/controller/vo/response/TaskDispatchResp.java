@@ -0,0 +1,36 @@
+package com.example.temporal.server.controller.vo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单个任务下发结果
+ *
+ * @author 0xNPC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(title = "任务下发结果")
+public class TaskDispatchResp {
+
+    @Schema(title = "业务任务ID (WorkflowId)")
+    private String taskId;
+
+    @Schema(title = "Temporal 运行实例ID，下发失败时为空")
+    private String runId;
+
+    @Schema(title = "下发失败原因，成功时为空")
+    private String error;
+
+    public static TaskDispatchResp success(String taskId, String runId) {
+        return new TaskDispatchResp(taskId, runId, null);
+    }
+
+    public static TaskDispatchResp failure(String taskId, String error) {
+        return new TaskDispatchResp(taskId, null, error);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.example.temporal.server.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Region 超出限流或在途上限，请求被拒绝，对外返回 HTTP 429 + Retry-After
+ *
+ * @author 0xNPC
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final String region;
+
+    /**
+     * 拒绝原因：rate (令牌桶) / in_flight (在途上限)
+     */
+    private final String reason;
+
+    /**
+     * 建议调用方的重试间隔
+     */
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String region, String reason, Duration retryAfter) {
+        super("Region 过载，请稍后重试: Region=" + region + ", Reason=" + reason);
+        this.region = region;
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.temporal.server.exception;
+
+/**
+ * 业务自身的参数校验失败，对外返回 HTTP 400 与异常信息
+ * <p>
+ * 只用于服务层主动发现的调用方错误；框架或 SDK 抛出的 IllegalArgumentException 不属于此类，仍按 500 处理，避免暴露内部信息
+ *
+ * @author 0xNPC
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+}
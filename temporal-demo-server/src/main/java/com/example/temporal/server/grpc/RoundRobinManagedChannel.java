@@ -0,0 +1,144 @@
+package com.example.temporal.server.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多连接 gRPC Channel：每个子 Channel 各自维护一条 HTTP/2 连接，RPC 按调用轮询分配
+ * <p>
+ * 单条连接受服务端 max-concurrent-streams 限制（通常 100~1000），高并发下发时请求会在客户端排队；
+ * 拆成 N 条连接后并发上限随之放大。对 SDK 而言仍是一个 ManagedChannel，拦截器、指标、重试均不受影响。
+ *
+ * @author 0xNPC
+ */
+public class RoundRobinManagedChannel extends ManagedChannel {
+
+    private final List<ManagedChannel> channels;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public RoundRobinManagedChannel(List<ManagedChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("channels 不能为空");
+        }
+        this.channels = List.copyOf(channels);
+    }
+
+    public int size() {
+        return channels.size();
+    }
+
+    /**
+     * 预热：让每个子 Channel 立即建立连接 (TCP + TLS + HTTP/2 握手)，等待全部 READY 或超时
+     *
+     * @return 超时前已 READY 的连接数
+     */
+    public int awaitReady(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int ready = 0;
+        for (ManagedChannel channel : channels) {
+            if (awaitReady(channel, deadline)) {
+                ready++;
+            }
+        }
+        return ready;
+    }
+
+    private static boolean awaitReady(ManagedChannel channel, long deadline) throws InterruptedException {
+        ConnectivityState state = channel.getState(true);
+        while (state != ConnectivityState.READY) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || state == ConnectivityState.SHUTDOWN) {
+                return false;
+            }
+            CountDownLatch changed = new CountDownLatch(1);
+            channel.notifyWhenStateChanged(state, changed::countDown);
+            if (!changed.await(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            state = channel.getState(true);
+        }
+        return true;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> methodDescriptor,
+                                                         CallOptions callOptions) {
+        return channels.get(Math.floorMod(next.getAndIncrement(), channels.size())).newCall(methodDescriptor, callOptions);
+    }
+
+    @Override
+    public String authority() {
+        return channels.get(0).authority();
+    }
+
+    /**
+     * 全部子连接 READY 时为 READY，否则返回第一个非 READY 的状态，任一连接异常时 SDK 的连接管理都能感知到
+     */
+    @Override
+    public ConnectivityState getState(boolean requestConnection) {
+        ConnectivityState result = ConnectivityState.READY;
+        for (ManagedChannel channel : channels) {
+            // 每个子连接都要调用，requestConnection=true 时才会全部发起连接
+            ConnectivityState state = channel.getState(requestConnection);
+            if (result == ConnectivityState.READY) {
+                result = state;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void resetConnectBackoff() {
+        channels.forEach(ManagedChannel::resetConnectBackoff);
+    }
+
+    @Override
+    public void enterIdle() {
+        channels.forEach(ManagedChannel::enterIdle);
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        channels.forEach(ManagedChannel::shutdown);
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return channels.stream().allMatch(ManagedChannel::isShutdown);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return channels.stream().allMatch(ManagedChannel::isTerminated);
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        channels.forEach(ManagedChannel::shutdownNow);
+        return this;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ManagedChannel channel : channels) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !channel.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.server.config.TemporalProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 任务下发指标
+ * <p>
+ * temporal.dispatch：下发耗时 (Timer)，按 region / type / outcome 打标签，Timer 的计数即请求数；
+ * SYNC 的耗时包含等待结果的时间，ASYNC / BATCH 只包含 start RPC。
+ * region / task_queue 标签只保留已配置的值，其余记为 {@link #TAG_OTHER}。
+ *
+ * @author 0xNPC
+ */
+@Component
+public class DispatchMetrics {
+
+    public static final String TYPE_SYNC = "SYNC";
+
+    /**
+     * SYNC 会话模式 (Update 发送到常驻会话 Workflow)
+     */
+    public static final String TYPE_SESSION = "SESSION";
+
+    public static final String TYPE_ASYNC = "ASYNC";
+
+    /**
+     * /batch 中的单个任务
+     */
+    public static final String TYPE_BATCH = "BATCH";
+
+    public static final String TYPE_BATCH_WORKFLOW = "BATCH_WORKFLOW";
+
+    public static final String OUTCOME_SUCCESS = "success";
+
+    /**
+     * SYNC 等待超时，回退为返回 RunID
+     */
+    public static final String OUTCOME_FALLBACK = "fallback";
+
+    /**
+     * SYNC 等待超时且无法回退
+     */
+    public static final String OUTCOME_TIMEOUT = "timeout";
+
+    /**
+     * Workflow 执行失败
+     */
+    public static final String OUTCOME_FAILED = "failed";
+
+    /**
+     * 重复提交 (幂等键命中本地索引或 WorkflowId 已存在)，返回已有执行
+     */
+    public static final String OUTCOME_DUPLICATE = "duplicate";
+
+    /**
+     * 调用 Temporal 异常 (start RPC 失败等)
+     */
+    public static final String OUTCOME_ERROR = "error";
+
+    /**
+     * 未配置的 Region / 任务队列统一使用的标签值
+     */
+    public static final String TAG_OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> knownRegions = new HashSet<>();
+
+    private final Set<String> knownTaskQueues = new HashSet<>();
+
+    public DispatchMetrics(MeterRegistry meterRegistry, TemporalProperties temporalProperties) {
+        this.meterRegistry = meterRegistry;
+        knownRegions.addAll(temporalProperties.getMetrics().getRegions());
+        knownRegions.addAll(temporalProperties.getRouting().getRegions().keySet());
+        knownRegions.addAll(temporalProperties.getAdmission().getRegions().keySet());
+        knownRegions.addAll(temporalProperties.getEmbeddedWorker().getTaskQueues());
+        // 未注册路由的 Region 直接作为任务队列
+        knownTaskQueues.addAll(knownRegions);
+        temporalProperties.getRouting().getRegions().values().forEach(route -> knownTaskQueues.addAll(route.getTaskQueues()));
+        String syncLaneSuffix = temporalProperties.getDispatch().getSyncLaneSuffix();
+        if (!syncLaneSuffix.isEmpty()) {
+            knownTaskQueues.addAll(knownTaskQueues.stream().map(taskQueue -> taskQueue + syncLaneSuffix).toList());
+        }
+    }
+
+    /**
+     * region 标签值：已配置的 Region 原样返回，其余为 {@link #TAG_OTHER}
+     */
+    public String regionTag(String region) {
+        return region != null && knownRegions.contains(region) ? region : TAG_OTHER;
+    }
+
+    /**
+     * task_queue 标签值：已配置的任务队列 (含快速通道) 原样返回，其余为 {@link #TAG_OTHER}
+     */
+    public String taskQueueTag(String taskQueue) {
+        return taskQueue != null && knownTaskQueues.contains(taskQueue) ? taskQueue : TAG_OTHER;
+    }
+
+    /**
+     * 记录一次下发
+     *
+     * @param startNanos 开始时间 (System.nanoTime)
+     */
+    public void record(String type, String region, String outcome, long startNanos) {
+        Timer.builder("temporal.dispatch")
+                .description("任务下发耗时")
+                .tag("type", type)
+                .tag("region", regionTag(region))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录单个下发实际进入的任务队列，SYNC 快速通道与 Region 队列分开计数
+     */
+    public void recordTaskQueue(String type, String taskQueue) {
+        Counter.builder("temporal.dispatch.task_queue")
+                .description("按任务队列统计的下发数")
+                .tag("type", type)
+                .tag("task_queue", taskQueueTag(taskQueue))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录一次等待 start 许可 (背压) 的耗时
+     */
+    public void recordPermitWait(long startNanos) {
+        Timer.builder("temporal.dispatch.permit.wait")
+                .description("批量下发等待 start 许可的耗时")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录批量请求中的任务数
+     */
+    public void recordBatchSize(String type, int size) {
+        Counter.builder("temporal.dispatch.batch.items")
+                .description("批量接口收到的任务数")
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment(size);
+    }
+
+    /**
+     * 记录一次准入拒绝 (HTTP 429)
+     *
+     * @param reason {@link RegionAdmission#REASON_RATE} / {@link RegionAdmission#REASON_IN_FLIGHT}
+     */
+    public void recordRejected(String type, String region, String reason) {
+        Counter.builder("temporal.dispatch.rejected")
+                .description("被准入控制拒绝的下发数")
+                .tag("type", type)
+                .tag("region", regionTag(region))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 暴露 Region 的在途下发数，每个 region 标签只应注册一次
+     *
+     * @param inFlight 读取该标签当前的在途数，Gauge 持有其强引用
+     */
+    public void bindInFlight(String region, Supplier<Number> inFlight) {
+        Gauge.builder("temporal.dispatch.in_flight", inFlight)
+                .description("Region 进行中的下发数，SYNC 含等待结果")
+                .tag("region", regionTag(region))
+                .register(meterRegistry);
+    }
+
+    /**
+     * 暴露 start 许可的剩余数量，长期为 0 说明 maxInFlightStarts 成为瓶颈
+     */
+    public void bindStartPermits(Semaphore startPermits) {
+        Gauge.builder("temporal.dispatch.start.permits.available", startPermits, Semaphore::availablePermits)
+                .description("剩余的 start 许可数")
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.server.config.TemporalProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+/**
+ * 幂等键本地索引：幂等键 (WorkflowId) -> RunID
+ * <p>
+ * 客户端超时重试等重复提交直接在本地返回已有的 RunID，不再发起 start RPC；
+ * 索引只是加速，未命中 (其它实例下发、已淘汰) 时仍由 Temporal 的 WorkflowId 去重保证不重复执行。
+ * 执行失败 (含超时/终止/取消) 后由调用方移除索引项，按 ALLOW_DUPLICATE_FAILED_ONLY 允许重新提交。
+ *
+ * @author 0xNPC
+ */
+@Component
+public class IdempotencyIndex {
+
+    private final Cache<String, String> runIds;
+
+    public IdempotencyIndex(TemporalProperties temporalProperties) {
+        TemporalProperties.Idempotency config = temporalProperties.getIdempotency();
+        this.runIds = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .build();
+    }
+
+    /**
+     * @return 幂等键对应的 RunID，不存在时返回 null
+     */
+    public String getRunId(String idempotencyKey) {
+        return runIds.getIfPresent(idempotencyKey);
+    }
+
+    public void put(String idempotencyKey, String runId) {
+        runIds.put(idempotencyKey, runId);
+    }
+
+    /**
+     * 移除索引项，仅当其仍指向 runId 时生效，不会误删之后重新提交的执行
+     */
+    public void remove(String idempotencyKey, String runId) {
+        runIds.asMap().remove(idempotencyKey, runId);
+    }
+
+    /**
+     * 索引项数量（估算）
+     */
+    public long size() {
+        return runIds.estimatedSize();
+    }
+
+}
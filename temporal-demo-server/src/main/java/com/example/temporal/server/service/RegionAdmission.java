@@ -0,0 +1,172 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.server.exception.AdmissionRejectedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按 Region 的准入控制：令牌桶限流 + 在途上限
+ * <p>
+ * 超出限制的请求立即以 {@link AdmissionRejectedException} 拒绝，而不是转发给 Temporal 形成积压；
+ * 过载时被拒绝的只是超出部分，已接收请求的延迟保持稳定。
+ * <p>
+ * 已配置的 Region (与指标标签的范围一致，见 {@link DispatchMetrics#regionTag}) 各自计数；
+ * 其余 region 共用一份按 defaults 限制的状态，任意 region 字符串都不会新增状态。
+ *
+ * @author 0xNPC
+ */
+@Component
+public class RegionAdmission {
+
+    public static final String REASON_RATE = "rate";
+
+    public static final String REASON_IN_FLIGHT = "in_flight";
+
+    private final TemporalProperties temporalProperties;
+
+    private final DispatchMetrics dispatchMetrics;
+
+    /**
+     * region 标签 -> 状态，数量以已配置的 Region 数 + 1 为上限；长时间无请求的状态自动清理
+     */
+    private final Cache<String, RegionState> states = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    /**
+     * 已注册在途 Gauge 的 region 标签
+     */
+    private final Set<String> boundRegionTags = ConcurrentHashMap.newKeySet();
+
+    public RegionAdmission(TemporalProperties temporalProperties, DispatchMetrics dispatchMetrics) {
+        this.temporalProperties = temporalProperties;
+        this.dispatchMetrics = dispatchMetrics;
+    }
+
+    /**
+     * 申请准入，成功返回的许可需在下发结束 (SYNC 为拿到结果) 后 release
+     *
+     * @param type   下发类型，用于指标
+     * @param region 目标区域
+     * @throws AdmissionRejectedException 超出限流或在途上限
+     */
+    public Permit acquire(String type, String region) {
+        TemporalProperties.Admission admission = temporalProperties.getAdmission();
+        if (!admission.isEnabled()) {
+            return Permit.NOOP;
+        }
+        TemporalProperties.RegionLimit limit = admission.limitOf(region);
+        RegionState state = states.get(dispatchMetrics.regionTag(region), this::newState);
+
+        // 先占在途名额再取令牌，被在途上限拒绝时不消耗令牌
+        int maxInFlight = valueOf(limit.getMaxInFlight());
+        if (state.inFlight.incrementAndGet() > maxInFlight && maxInFlight > 0) {
+            state.inFlight.decrementAndGet();
+            throw reject(type, region, REASON_IN_FLIGHT, admission.getInFlightRetryAfter());
+        }
+        long waitNanos = state.tryAcquireToken(valueOf(limit.getRatePerSecond()), valueOf(limit.getBurst()));
+        if (waitNanos > 0) {
+            state.inFlight.decrementAndGet();
+            throw reject(type, region, REASON_RATE, Duration.ofNanos(waitNanos));
+        }
+        return new Permit(state.inFlight);
+    }
+
+    private RegionState newState(String regionTag) {
+        // Gauge 每个标签只注册一次，读数时取当前的状态：状态过期重建后不会停留在旧的计数上
+        if (boundRegionTags.add(regionTag)) {
+            dispatchMetrics.bindInFlight(regionTag, () -> inFlightOf(regionTag));
+        }
+        return new RegionState();
+    }
+
+    private int inFlightOf(String regionTag) {
+        // 读数不刷新访问时间，否则指标抓取会让空闲状态永不过期
+        RegionState state = states.policy().getIfPresentQuietly(regionTag);
+        return state == null ? 0 : state.inFlight.get();
+    }
+
+    private AdmissionRejectedException reject(String type, String region, String reason, Duration retryAfter) {
+        dispatchMetrics.recordRejected(type, region, reason);
+        return new AdmissionRejectedException(region, reason, retryAfter);
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static double valueOf(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * 准入许可，重复 release 只生效一次
+     */
+    public static class Permit {
+
+        static final Permit NOOP = new Permit(null);
+
+        private final AtomicInteger inFlight;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(AtomicInteger inFlight) {
+            this.inFlight = inFlight;
+        }
+
+        public void release() {
+            if (inFlight != null && released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+
+    }
+
+    /**
+     * 单个 Region 的在途计数与令牌桶
+     */
+    private static class RegionState {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private double tokens = -1;
+
+        private long lastRefillNanos = System.nanoTime();
+
+        /**
+         * 取一个令牌
+         *
+         * @return 0 表示成功，否则为下一个令牌可用前需等待的纳秒数
+         */
+        synchronized long tryAcquireToken(double ratePerSecond, int burst) {
+            if (ratePerSecond <= 0) {
+                return 0;
+            }
+            double capacity = burst > 0 ? burst : Math.max(1, ratePerSecond);
+            long now = System.nanoTime();
+            if (tokens < 0) {
+                // 首次使用时桶是满的
+                tokens = capacity;
+            } else {
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerSecond / TimeUnit.SECONDS.toNanos(1));
+            }
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) ((1 - tokens) / ratePerSecond * TimeUnit.SECONDS.toNanos(1));
+        }
+
+    }
+
+}
@@ -0,0 +1,257 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.server.config.TemporalProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.api.enums.v1.TaskQueueType;
+import io.temporal.api.taskqueue.v1.TaskQueue;
+import io.temporal.api.workflowservice.v1.DescribeTaskQueueRequest;
+import io.temporal.api.workflowservice.v1.DescribeTaskQueueResponse;
+import io.temporal.client.WorkflowClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Region 路由：逻辑 Region -> 任务队列
+ * <p>
+ * 后台定期通过 DescribeTaskQueue 采样各队列的积压与 Poller，路由时只读缓存，不在下发路径上发 RPC。
+ * 默认路由到首选队列；请求允许故障转移且首选队列积压超过阈值 (或已无 Poller) 时，
+ * 改投积压最少、且 Workflow/Activity 两类 Poller 都在线的候选队列。
+ *
+ * @author 0xNPC
+ */
+@Slf4j
+@Component
+public class RegionRouter {
+
+    /**
+     * 未启用路由或 Region 未注册，Region 直接作为任务队列
+     */
+    public static final String REASON_DIRECT = "direct";
+
+    public static final String REASON_PRIMARY = "primary";
+
+    public static final String REASON_FAILOVER = "failover";
+
+    private final WorkflowClient workflowClient;
+
+    private final TemporalProperties temporalProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final DispatchMetrics dispatchMetrics;
+
+    /**
+     * 任务队列 -> 最近一次采样结果
+     */
+    private final Map<String, QueueLoad> loads = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService sampler;
+
+    public RegionRouter(WorkflowClient workflowClient, TemporalProperties temporalProperties, MeterRegistry meterRegistry,
+                        DispatchMetrics dispatchMetrics) {
+        this.workflowClient = workflowClient;
+        this.temporalProperties = temporalProperties;
+        this.meterRegistry = meterRegistry;
+        this.dispatchMetrics = dispatchMetrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        TemporalProperties.Routing routing = temporalProperties.getRouting();
+        Set<String> taskQueues = registeredTaskQueues();
+        if (!routing.isEnabled() || taskQueues.isEmpty()) {
+            return;
+        }
+        for (String taskQueue : taskQueues) {
+            bindGauges(taskQueue);
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("region-router-sampler")
+                .daemon(true)
+                .factory());
+        long intervalMillis = routing.getSampleInterval().toMillis();
+        sampler.scheduleWithFixedDelay(() -> {
+            for (String taskQueue : taskQueues) {
+                if (sampler.isShutdown()) {
+                    return;
+                }
+                sample(taskQueue);
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Region 路由已启用: Regions={}, 采样间隔={}", routing.getRegions().keySet(), routing.getSampleInterval());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * 选择任务队列
+     *
+     * @param region        逻辑区域
+     * @param allowFailover 是否允许改投首选队列以外的队列
+     * @return 任务队列
+     */
+    public String route(String region, boolean allowFailover) {
+        TemporalProperties.Routing routing = temporalProperties.getRouting();
+        TemporalProperties.RegionRoute route = routing.isEnabled() ? routing.getRegions().get(region) : null;
+        if (route == null || route.getTaskQueues().isEmpty()) {
+            return decide(region, region, REASON_DIRECT);
+        }
+        List<String> taskQueues = route.getTaskQueues();
+        String primary = taskQueues.get(0);
+        if (!allowFailover || taskQueues.size() == 1) {
+            return decide(region, primary, REASON_PRIMARY);
+        }
+        QueueLoad primaryLoad = freshLoad(primary);
+        // 首选队列没有有效采样时不做判断，避免采样失败导致流量全部转移
+        if (primaryLoad == null
+                || (primaryLoad.hasPollers() && primaryLoad.backlog() < routing.getFailoverBacklogThreshold())) {
+            return decide(region, primary, REASON_PRIMARY);
+        }
+
+        String best = primary;
+        long bestBacklog = primaryLoad.hasPollers() ? primaryLoad.backlog() : Long.MAX_VALUE;
+        for (String candidate : taskQueues.subList(1, taskQueues.size())) {
+            QueueLoad load = freshLoad(candidate);
+            if (load != null && load.hasPollers() && load.backlog() < bestBacklog) {
+                best = candidate;
+                bestBacklog = load.backlog();
+            }
+        }
+        if (best.equals(primary)) {
+            return decide(region, primary, REASON_PRIMARY);
+        }
+        log.debug("Region 故障转移: Region={}, {} -> {}, 首选积压={}, Poller={}",
+                region, primary, best, primaryLoad.backlog(), primaryLoad.hasPollers());
+        return decide(region, best, REASON_FAILOVER);
+    }
+
+    private String decide(String region, String taskQueue, String reason) {
+        Counter.builder("temporal.routing.decisions")
+                .description("Region 路由决策次数")
+                // 未注册的 Region 直接作为任务队列，两个标签都需归一化
+                .tag("region", dispatchMetrics.regionTag(region))
+                .tag("task_queue", dispatchMetrics.taskQueueTag(taskQueue))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return taskQueue;
+    }
+
+    /**
+     * 过期的采样视为无效，采样线程卡住时不依据陈旧数据转移流量
+     */
+    private QueueLoad freshLoad(String taskQueue) {
+        QueueLoad load = loads.get(taskQueue);
+        long maxAgeNanos = temporalProperties.getRouting().getSampleInterval().multipliedBy(3).toNanos();
+        if (load == null || System.nanoTime() - load.sampledAtNanos() > maxAgeNanos) {
+            return null;
+        }
+        return load;
+    }
+
+    private void sample(String taskQueue) {
+        try {
+            DescribeTaskQueueResponse workflow = describe(taskQueue, TaskQueueType.TASK_QUEUE_TYPE_WORKFLOW);
+            DescribeTaskQueueResponse activity = describe(taskQueue, TaskQueueType.TASK_QUEUE_TYPE_ACTIVITY);
+            // 服务端未返回统计 (版本较旧或未开启) 时积压按 0 处理，仅依据 Poller 判断可用性
+            long backlog = workflow.getStats().getApproximateBacklogCount()
+                    + activity.getStats().getApproximateBacklogCount();
+            loads.put(taskQueue, new QueueLoad(backlog, workflow.getPollersCount(), activity.getPollersCount(),
+                    System.nanoTime()));
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                // 服务端不支持 DescribeTaskQueue (如测试服务器)，停止采样，所有请求走首选队列
+                log.warn("服务端不支持 DescribeTaskQueue，停止队列采样，Region 路由固定使用首选队列");
+                stop();
+                return;
+            }
+            // 保留上一次采样，过期后自然失效
+            log.warn("任务队列采样失败: TaskQueue={}, {}", taskQueue, e.getStatus());
+        } catch (Exception e) {
+            // 保留上一次采样，过期后自然失效
+            log.warn("任务队列采样失败: TaskQueue={}, {}", taskQueue, e.getMessage());
+        }
+    }
+
+    private DescribeTaskQueueResponse describe(String taskQueue, TaskQueueType type) {
+        DescribeTaskQueueRequest request = DescribeTaskQueueRequest.newBuilder()
+                .setNamespace(workflowClient.getOptions().getNamespace())
+                .setTaskQueue(TaskQueue.newBuilder().setName(taskQueue).build())
+                .setTaskQueueType(type)
+                .setReportStats(true)
+                .build();
+        return workflowClient.getWorkflowServiceStubs().blockingStub()
+                .withDeadlineAfter(temporalProperties.getGrpc().getRpcTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .describeTaskQueue(request);
+    }
+
+    private Set<String> registeredTaskQueues() {
+        Set<String> taskQueues = new LinkedHashSet<>();
+        temporalProperties.getRouting().getRegions().values().forEach(route -> taskQueues.addAll(route.getTaskQueues()));
+        return taskQueues;
+    }
+
+    private void bindGauges(String taskQueue) {
+        Gauge.builder("temporal.routing.queue.backlog", loads, map -> valueOf(map.get(taskQueue), QueueLoad::backlog))
+                .description("任务队列近似积压数 (Workflow + Activity)")
+                .tag("task_queue", taskQueue)
+                .register(meterRegistry);
+        Gauge.builder("temporal.routing.queue.pollers", loads,
+                        map -> valueOf(map.get(taskQueue), QueueLoad::workflowPollers))
+                .description("任务队列在线 Poller 数")
+                .tag("task_queue", taskQueue)
+                .tag("type", "workflow")
+                .register(meterRegistry);
+        Gauge.builder("temporal.routing.queue.pollers", loads,
+                        map -> valueOf(map.get(taskQueue), QueueLoad::activityPollers))
+                .description("任务队列在线 Poller 数")
+                .tag("task_queue", taskQueue)
+                .tag("type", "activity")
+                .register(meterRegistry);
+    }
+
+    private static double valueOf(QueueLoad load, ToLongFunction<QueueLoad> getter) {
+        return load == null ? Double.NaN : getter.applyAsLong(load);
+    }
+
+    /**
+     * 任务队列采样结果
+     *
+     * @param backlog         近似积压数 (Workflow + Activity)
+     * @param workflowPollers Workflow Poller 数
+     * @param activityPollers Activity Poller 数
+     * @param sampledAtNanos  采样时间 (System.nanoTime)
+     */
+    public record QueueLoad(long backlog, int workflowPollers, int activityPollers, long sampledAtNanos) {
+
+        /**
+         * Workflow 与 Activity 都有 Poller 时任务才能被执行
+         */
+        public boolean hasPollers() {
+            return workflowPollers > 0 && activityPollers > 0;
+        }
+
+    }
+
+}
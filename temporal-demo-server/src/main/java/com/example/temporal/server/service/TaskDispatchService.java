@@ -1,23 +1,60 @@
 package com.example.temporal.server.service;
 
+import com.example.temporal.common.BatchTaskWorkflow;
+import com.example.temporal.common.PingSessionWorkflow;
 import com.example.temporal.common.PingWorkflow;
 import com.example.temporal.common.TaskWorkflow;
+import com.example.temporal.model.BatchTaskInput;
+import com.example.temporal.model.BatchTaskResult;
 import com.example.temporal.model.TaskArgs;
+import com.example.temporal.model.TaskProgress;
 import com.example.temporal.model.TaskStatus;
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.server.constants.SyncMode;
 import com.example.temporal.server.constants.TaskType;
+import com.example.temporal.server.controller.vo.request.BatchTaskReq.BatchTaskItem;
+import com.example.temporal.server.controller.vo.response.TaskDispatchResp;
+import com.example.temporal.server.exception.AdmissionRejectedException;
+import com.example.temporal.server.exception.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.temporal.api.common.v1.WorkflowExecution;
 import io.temporal.api.enums.v1.WorkflowExecutionStatus;
+import io.temporal.api.enums.v1.WorkflowIdConflictPolicy;
 import io.temporal.api.enums.v1.WorkflowIdReusePolicy;
+import io.temporal.api.workflow.v1.PendingActivityInfo;
 import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
+import io.temporal.client.UpdateOptions;
+import io.temporal.client.WithStartWorkflowOperation;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowException;
+import io.temporal.client.WorkflowExecutionAlreadyStarted;
+import io.temporal.client.WorkflowNotFoundException;
 import io.temporal.client.WorkflowStub;
-import io.temporal.internal.worker.WorkflowExecutionException;
+import io.temporal.client.WorkflowTargetOptions;
+import io.temporal.client.WorkflowUpdateHandle;
+import io.temporal.client.WorkflowUpdateStage;
+import io.temporal.client.WorkflowUpdateTimeoutOrCancelledException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Dispatch Server实现
@@ -29,8 +66,48 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class TaskDispatchService {
 
+    /**
+     * 会话 Workflow ID 前缀，每个任务队列一个会话
+     */
+    public static final String SESSION_WORKFLOW_ID_PREFIX = "ping-session-";
+
+    /**
+     * 会话模式的 taskId 前缀：此类 taskId 只是会话内的 Update ID，没有对应的 Workflow，
+     * 结果在下发时同步返回，不支持状态/进度/事件/取消查询
+     */
+    public static final String SESSION_TASK_ID_PREFIX = "session:";
+
+    private static final String BATCH_WORKFLOW_TYPE = BatchTaskWorkflow.class.getSimpleName();
+
     private final WorkflowClient workflowClient;
 
+    private final TemporalProperties temporalProperties;
+
+    private final ExecutorService dispatchExecutor;
+
+    private final TaskStatusCache taskStatusCache;
+
+    private final ObjectMapper objectMapper;
+
+    private final DispatchMetrics dispatchMetrics;
+
+    private final RegionAdmission regionAdmission;
+
+    private final RegionRouter regionRouter;
+
+    private final IdempotencyIndex idempotencyIndex;
+
+    /**
+     * 限制全局同时进行中的 Workflow 启动 RPC 数量
+     */
+    private Semaphore startPermits;
+
+    @PostConstruct
+    public void init() {
+        startPermits = new Semaphore(temporalProperties.getDispatch().getMaxInFlightStarts());
+        dispatchMetrics.bindStartPermits(startPermits);
+    }
+
     /**
      * 1. 下发任务（支持同步/异步）
      *
@@ -38,41 +115,285 @@ public class TaskDispatchService {
      * @param region   目标区域 (Queue Name)
      * @param taskId   业务任务ID (WorkflowId)
      * @param command  业务指令
-     * @return 如果是 ASYNC，返回 RunId；如果是 SYNC，返回任务的执行结果
+     * @return 如果是 ASYNC，返回 RunId；如果是 SYNC，返回任务的执行结果（等待超时则返回 RunId）
+     * @throws AdmissionRejectedException 超出 Region 限流或在途上限
+     */
+    public CompletableFuture<String> dispatchTask(TaskType taskType, String region, String taskId, String command) {
+        return dispatchTask(taskType, region, taskId, command, false, false);
+    }
+
+    /**
+     * 1. 下发任务（支持同步/异步）
+     *
+     * @param region        逻辑区域，由 {@link RegionRouter} 解析为任务队列
+     * @param taskId        业务任务ID (WorkflowId)，idempotent 时为客户端提供的幂等键
+     * @param allowFailover 首选队列积压过高或无 Poller 时，是否允许改投该 Region 的其它队列
+     * @param idempotent    taskId 是否为幂等键：是则重复提交直接返回已有的 RunID，不再发起 start
+     * @see #dispatchTask(TaskType, String, String, String)
+     */
+    public CompletableFuture<String> dispatchTask(TaskType taskType, String region, String taskId, String command,
+                                                  boolean allowFailover, boolean idempotent) {
+        boolean session = isSession(taskType);
+        String type = TaskType.SYNC == taskType
+                ? (session ? DispatchMetrics.TYPE_SESSION : DispatchMetrics.TYPE_SYNC) : DispatchMetrics.TYPE_ASYNC;
+        // 会话模式以 taskId 作为 Update ID，由 Temporal 去重，不经过本地索引
+        String existingRunId = idempotent && !session ? indexedRunId(taskId) : null;
+        if (existingRunId != null && TaskType.SYNC != taskType) {
+            dispatchMetrics.record(type, region, DispatchMetrics.OUTCOME_DUPLICATE, System.nanoTime());
+            log.info("[DEDUPE] 重复提交，返回已有执行: Region={}, ID={}, RunID={}", region, taskId, existingRunId);
+            return CompletableFuture.completedFuture(existingRunId);
+        }
+        // 0. 准入控制：超出 Region 限流或在途上限时直接拒绝，不转发给 Temporal 形成积压
+        RegionAdmission.Permit permit = regionAdmission.acquire(type, region);
+        CompletableFuture<String> result;
+        try {
+            if (existingRunId != null) {
+                // SYNC 重复提交与 WorkflowId 已存在时一致：等待已有执行的结果
+                log.info("[DEDUPE] 重复提交，等待已有执行: Region={}, ID={}, RunID={}", region, taskId, existingRunId);
+                result = awaitExisting(region, taskId, existingRunId, System.nanoTime());
+            } else {
+                result = routeTask(taskType, type, session, region, regionRouter.route(region, allowFailover), taskId,
+                        command, idempotent);
+            }
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        // SYNC 在拿到结果 (或超时回退) 后才释放在途名额
+        return result.whenComplete((value, ex) -> permit.release());
+    }
+
+    /**
+     * 该类型的任务是否走会话模式 (taskId 需带 {@link #SESSION_TASK_ID_PREFIX})
+     */
+    public boolean isSession(TaskType taskType) {
+        return TaskType.SYNC == taskType && SyncMode.SESSION == temporalProperties.getDispatch().getSyncMode();
+    }
+
+    /**
+     * 拒绝会话模式的 taskId：它没有对应的 Workflow，查询只会得到 NOT_FOUND
+     *
+     * @throws InvalidRequestException taskId 属于会话模式
+     */
+    public static void requireWorkflowTaskId(String taskId) {
+        if (taskId.startsWith(SESSION_TASK_ID_PREFIX)) {
+            throw new InvalidRequestException("会话模式任务没有独立的 Workflow，结果已在下发时同步返回: " + taskId);
+        }
+    }
+
+    /**
+     * 本地索引中幂等键对应的 RunID
+     * <p>
+     * 通过状态缓存确认该执行仍在运行或已成功；已失败 (含超时/终止/取消) 或已不存在时移除索引项并返回 null，
+     * 按 ALLOW_DUPLICATE_FAILED_ONLY 重新发起 start。状态查询失败时同样返回 null，由 WorkflowId 去重兜底。
      */
-    public String dispatchTask(TaskType taskType, String region, String taskId, String command) {
+    private String indexedRunId(String taskId) {
+        String runId = idempotencyIndex.getRunId(taskId);
+        if (runId == null) {
+            return null;
+        }
+        TaskStatus status;
+        try {
+            status = checkStatus(taskId);
+        } catch (RuntimeException e) {
+            log.warn("[DEDUPE] 查询已有执行状态失败，重新发起下发: ID={}, RunID={}", taskId, runId, e);
+            return null;
+        }
+        if ("RUNNING".equals(status.getStatus()) || "SUCCESS".equals(status.getStatus())) {
+            return status.getRunId();
+        }
+        idempotencyIndex.remove(taskId, runId);
+        // 缓存中的终态属于旧的执行，重新提交后需重新查询
+        taskStatusCache.invalidate(taskId);
+        log.info("[DEDUPE] 已有执行已结束且未成功，允许重新提交: ID={}, RunID={}, Status={}",
+                taskId, runId, status.getStatus());
+        return null;
+    }
+
+    private CompletableFuture<String> routeTask(TaskType taskType, String type, boolean session, String region,
+                                                String regionQueue, String taskId, String command, boolean idempotent) {
+        // SYNC 走独立的快速通道队列，ASYNC 留在 Region 队列
+        String taskQueue = TaskType.SYNC == taskType ? syncLane(regionQueue) : regionQueue;
+        dispatchMetrics.recordTaskQueue(type, taskQueue);
         // 1. 构建 Workflow 配置
-        WorkflowOptions options = WorkflowOptions.newBuilder()
-                .setTaskQueue(region)               // 核心：路由到指定区域
-                .setWorkflowId(taskId)              // 核心：业务ID去重
-                // 策略建议：仅允许在上一条相同ID的任务 失败/超时/终止 后，才允许复用ID。
-                // 如果上一条还在运行，这里会报错 (WorkflowExecutionAlreadyStarted)
-                .setWorkflowIdReusePolicy(WorkflowIdReusePolicy.WORKFLOW_ID_REUSE_POLICY_ALLOW_DUPLICATE_FAILED_ONLY)
-                .build();
+        WorkflowOptions options = buildOptions(taskQueue, taskId);
         // 2. 准备参数
         TaskArgs args = TaskArgs.builder().build();
 
         // 3. 根据类型分发
-        if (TaskType.SYNC == taskType) {
+        if (session) {
+            // 同步会话模式：以 Update 方式发送到 Region 常驻的会话 Workflow
+            return dispatchSession(region, taskQueue, taskId, command);
+        } else if (TaskType.SYNC == taskType) {
             // 同步模式
             // 创建 Workflow 存根 (Client Stub)
             PingWorkflow syncWorkflow = workflowClient.newWorkflowStub(
                     PingWorkflow.class, options
             );
-            return dispatchSync(syncWorkflow, region, taskId, command, args);
+            return dispatchSync(syncWorkflow, region, taskId, command, args, idempotent);
         } else {
             // 异步模式
             TaskWorkflow workflow = workflowClient.newWorkflowStub(
                     TaskWorkflow.class, options
             );
-            return dispatchAsync(workflow, region, taskId, command, args);
+            return CompletableFuture.completedFuture(dispatchAsync(workflow, region, taskId, command, args, idempotent));
         }
     }
 
+    /**
+     * 批量下发异步任务
+     * <p>
+     * 每个任务在虚拟线程上发起 start RPC，并发数受 maxInFlightStarts 全局限制；
+     * 单个任务失败不影响其它任务，结果按请求顺序返回。
+     *
+     * @param items 任务列表，可跨 Region
+     * @return 每个任务的 taskId/runId/error
+     */
+    public List<TaskDispatchResp> dispatchBatch(List<BatchTaskItem> items) {
+        int batchMaxSize = temporalProperties.getDispatch().getBatchMaxSize();
+        if (items.size() > batchMaxSize) {
+            throw new InvalidRequestException("批量任务数超过上限: " + items.size() + " > " + batchMaxSize);
+        }
+        dispatchMetrics.recordBatchSize(DispatchMetrics.TYPE_BATCH, items.size());
+        long startTime = System.currentTimeMillis();
+        List<CompletableFuture<TaskDispatchResp>> futures = new ArrayList<>(items.size());
+        for (BatchTaskItem item : items) {
+            String taskId = UUID.randomUUID().toString();
+            RegionAdmission.Permit permit;
+            try {
+                permit = regionAdmission.acquire(DispatchMetrics.TYPE_BATCH, item.getRegion());
+            } catch (AdmissionRejectedException e) {
+                // 被拒绝的任务单独标记失败，不影响同批次其它 Region
+                futures.add(CompletableFuture.completedFuture(TaskDispatchResp.failure(taskId, e.getMessage())));
+                continue;
+            }
+            // 在提交前获取许可，调用方线程在此处形成背压，避免一次性堆积大量 RPC
+            long waitStart = System.nanoTime();
+            startPermits.acquireUninterruptibly();
+            dispatchMetrics.recordPermitWait(waitStart);
+            try {
+                futures.add(CompletableFuture.supplyAsync(() -> startBatchItem(item, taskId, permit), dispatchExecutor));
+            } catch (RejectedExecutionException e) {
+                // 提交被拒绝时 startBatchItem 不会执行，需在此归还许可
+                startPermits.release();
+                permit.release();
+                futures.add(CompletableFuture.completedFuture(TaskDispatchResp.failure(taskId, e.getMessage())));
+            }
+        }
+        List<TaskDispatchResp> results = futures.stream().map(CompletableFuture::join).toList();
+
+        long failed = results.stream().filter(r -> r.getError() != null).count();
+        log.info("[BATCH] 批量任务已下发: Total={}, Failed={}, Cost={}ms",
+                results.size(), failed, System.currentTimeMillis() - startTime);
+        return results;
+    }
+
+    /**
+     * 以单个 BatchTaskWorkflow 下发一批任务，由 Workflow 内部有限并发地扇出执行
+     *
+     * @param region      目标区域 (Queue Name)
+     * @param taskId      业务任务ID (WorkflowId)
+     * @param commands    业务指令列表
+     * @param parallelism 并发数
+     * @return RunID
+     */
+    public String dispatchBatchWorkflow(String region, String taskId, List<String> commands, Integer parallelism) {
+        TemporalProperties.Dispatch dispatch = temporalProperties.getDispatch();
+        if (commands.size() > dispatch.getBatchWorkflowMaxSize()) {
+            throw new InvalidRequestException("批量任务数超过上限: " + commands.size() + " > " + dispatch.getBatchWorkflowMaxSize());
+        }
+        long totalBytes = commands.stream()
+                .mapToLong(command -> command == null ? 0 : command.getBytes(StandardCharsets.UTF_8).length)
+                .sum();
+        if (totalBytes > dispatch.getBatchWorkflowMaxBytes().toBytes()) {
+            throw new InvalidRequestException("批量任务指令总大小超过上限: " + totalBytes + " > "
+                    + dispatch.getBatchWorkflowMaxBytes().toBytes() + " 字节");
+        }
+        BatchTaskInput input = BatchTaskInput.builder()
+                .payloads(commands)
+                .parallelism(parallelism == null ? 1 : Math.max(1, Math.min(parallelism, dispatch.getBatchWorkflowMaxParallelism())))
+                .itemsPerRun(dispatch.getBatchWorkflowItemsPerRun())
+                .offset(0)
+                .args(TaskArgs.builder().build())
+                .build();
+        dispatchMetrics.recordBatchSize(DispatchMetrics.TYPE_BATCH_WORKFLOW, commands.size());
+        RegionAdmission.Permit permit = regionAdmission.acquire(DispatchMetrics.TYPE_BATCH_WORKFLOW, region);
+        BatchTaskWorkflow workflow = workflowClient.newWorkflowStub(BatchTaskWorkflow.class,
+                buildOptions(regionRouter.route(region, false), taskId));
+        long startNanos = System.nanoTime();
+        try {
+            WorkflowExecution execution = WorkflowClient.start(workflow::executeBatch, input);
+            dispatchMetrics.record(DispatchMetrics.TYPE_BATCH_WORKFLOW, region, DispatchMetrics.OUTCOME_SUCCESS, startNanos);
+            log.info("[BATCH] 批量 Workflow 已下发: Region={}, ID={}, RunID={}, Size={}, Parallelism={}",
+                    region, taskId, execution.getRunId(), commands.size(), input.getParallelism());
+            return execution.getRunId();
+        } catch (Exception e) {
+            dispatchMetrics.record(DispatchMetrics.TYPE_BATCH_WORKFLOW, region, DispatchMetrics.OUTCOME_ERROR, startNanos);
+            log.error("[BATCH] 批量 Workflow 下发失败: Region={}, ID={}", region, taskId, e);
+            throw new RuntimeException("批量 Workflow 下发失败", e);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private TaskDispatchResp startBatchItem(BatchTaskItem item, String taskId, RegionAdmission.Permit permit) {
+        long startNanos = System.nanoTime();
+        try {
+            TaskWorkflow workflow = workflowClient.newWorkflowStub(
+                    TaskWorkflow.class, buildOptions(regionRouter.route(item.getRegion(), false), taskId)
+            );
+            WorkflowExecution execution = WorkflowClient.start(
+                    workflow::executeTask,
+                    item.getCommand(),
+                    TaskArgs.builder().build()
+            );
+            dispatchMetrics.record(DispatchMetrics.TYPE_BATCH, item.getRegion(), DispatchMetrics.OUTCOME_SUCCESS, startNanos);
+            return TaskDispatchResp.success(taskId, execution.getRunId());
+        } catch (Exception e) {
+            dispatchMetrics.record(DispatchMetrics.TYPE_BATCH, item.getRegion(), DispatchMetrics.OUTCOME_ERROR, startNanos);
+            log.error("[BATCH] 任务下发失败: Region={}, ID={}", item.getRegion(), taskId, e);
+            return TaskDispatchResp.failure(taskId, e.getMessage());
+        } finally {
+            startPermits.release();
+            permit.release();
+        }
+    }
+
+    private WorkflowOptions buildOptions(String taskQueue, String taskId) {
+        return WorkflowOptions.newBuilder()
+                .setTaskQueue(taskQueue)            // 核心：路由到指定区域
+                .setWorkflowId(taskId)              // 核心：业务ID去重
+                // 策略建议：仅允许在上一条相同ID的任务 失败/超时/终止 后，才允许复用ID。
+                // 如果上一条还在运行或已成功，start 抛出 WorkflowExecutionAlreadyStarted，按重复提交返回已有执行
+                .setWorkflowIdReusePolicy(WorkflowIdReusePolicy.WORKFLOW_ID_REUSE_POLICY_ALLOW_DUPLICATE_FAILED_ONLY)
+                // 本进程内有该队列的 Worker 时，首个 Workflow Task 随 start 响应内联返回
+                .setDisableEagerExecution(!isEagerStart(taskQueue))
+                .build();
+    }
+
+    /**
+     * Region 队列对应的 SYNC 快速通道队列，未配置后缀时即 Region 队列本身
+     */
+    private String syncLane(String taskQueue) {
+        return taskQueue + temporalProperties.getDispatch().getSyncLaneSuffix();
+    }
+
+    /**
+     * 该队列是否启用 Eager Workflow Start（需要内嵌 Worker 监听该队列，内嵌 Worker 同时监听各队列的快速通道）
+     */
+    private boolean isEagerStart(String taskQueue) {
+        TemporalProperties.EmbeddedWorker embeddedWorker = temporalProperties.getEmbeddedWorker();
+        return embeddedWorker.isEnabled() && embeddedWorker.isEagerStart()
+                && embeddedWorker.getTaskQueues().stream()
+                .anyMatch(queue -> queue.equals(taskQueue) || syncLane(queue).equals(taskQueue));
+    }
+
     /**
      * 处理异步任务 (Fire and Forget)
      */
-    private String dispatchAsync(TaskWorkflow workflow, String region, String taskId, String command, TaskArgs args) {
+    private String dispatchAsync(TaskWorkflow workflow, String region, String taskId, String command, TaskArgs args,
+                                 boolean idempotent) {
+        long startNanos = System.nanoTime();
         try {
             // WorkflowClient.start 是异步非阻塞的，发送成功即返回
             WorkflowExecution execution = WorkflowClient.start(
@@ -81,39 +402,152 @@ public class TaskDispatchService {
                     args
             );
 
+            dispatchMetrics.record(DispatchMetrics.TYPE_ASYNC, region, DispatchMetrics.OUTCOME_SUCCESS, startNanos);
             log.info("[ASYNC] 任务已下发: Region={}, ID={}, RunID={}", region, taskId, execution.getRunId());
+            if (idempotent) {
+                idempotencyIndex.put(taskId, execution.getRunId());
+            }
             // 异步模式返回 RunID，方便调用方后续查询状态
             return execution.getRunId();
 
+        } catch (WorkflowExecutionAlreadyStarted e) {
+            // 同一 WorkflowId 已有执行 (运行中或已成功)，视为重复提交，返回已有的 RunID
+            String runId = e.getExecution().getRunId();
+            idempotencyIndex.put(taskId, runId);
+            dispatchMetrics.record(DispatchMetrics.TYPE_ASYNC, region, DispatchMetrics.OUTCOME_DUPLICATE, startNanos);
+            log.info("[ASYNC] 任务已存在，返回已有执行: Region={}, ID={}, RunID={}", region, taskId, runId);
+            return runId;
         } catch (Exception e) {
+            dispatchMetrics.record(DispatchMetrics.TYPE_ASYNC, region, DispatchMetrics.OUTCOME_ERROR, startNanos);
             log.error("[ASYNC] 任务下发失败: Region={}, ID={}", region, taskId, e);
             throw new RuntimeException("异步任务下发失败", e);
         }
     }
 
     /**
-     * 处理同步任务 (Blocking Wait)
+     * 处理同步任务 (Async Wait)
+     * <p>
+     * 先发起 start，再通过 getResultAsync 长轮询等待结果；等待期间不占用任何线程。
+     * 超过 syncWaitTimeout 仍未完成时，回退为与 ASYNC 一致的 RunID 返回，调用方改为查询状态。
      */
-    private String dispatchSync(PingWorkflow workflow, String region, String taskId, String command, TaskArgs args) {
+    private CompletableFuture<String> dispatchSync(PingWorkflow workflow, String region, String taskId, String command,
+                                                   TaskArgs args, boolean idempotent) {
         log.info("[SYNC] 开始同步调用: Region={}, ID={}", region, taskId);
-        Long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
+        Duration waitTimeout = temporalProperties.getDispatch().getSyncWaitTimeout();
+        WorkflowExecution execution;
         try {
-            // 直接调用接口方法，会阻塞当前线程，直到 Workflow 执行完毕
-            // 如果 Workflow 执行失败，这里会抛出 WorkflowException
-            String result = workflow.executeTask(command, args);
-
-            long costTime = System.currentTimeMillis() - startTime;
-            log.info("[SYNC] 任务执行完成: Region={}, ID={}, Result={}, Cost={}ms", region, taskId, result, costTime);
-            // 同步模式直接返回业务结果
-            return result;
-
-        } catch (WorkflowExecutionException e) {
-            log.error("[SYNC] 任务执行异常: Region={}, ID={}", region, taskId, e);
-            throw new RuntimeException("同步任务执行失败: " + e.getMessage(), e);
+            execution = WorkflowClient.start(workflow::executeTask, command, args);
+        } catch (WorkflowExecutionAlreadyStarted e) {
+            // 重复提交：不再新建执行，改为等待已有执行的结果
+            execution = e.getExecution();
+            idempotencyIndex.put(taskId, execution.getRunId());
+            log.info("[SYNC] 任务已存在，等待已有执行: Region={}, ID={}, RunID={}", region, taskId, execution.getRunId());
+            return awaitExisting(region, taskId, execution.getRunId(), startTime);
         } catch (Exception e) {
+            dispatchMetrics.record(DispatchMetrics.TYPE_SYNC, region, DispatchMetrics.OUTCOME_ERROR, startTime);
             log.error("[SYNC] 调用系统异常: Region={}, ID={}", region, taskId, e);
-            throw new RuntimeException("同步任务系统异常", e);
+            return CompletableFuture.failedFuture(new RuntimeException("同步任务系统异常", e));
+        }
+        if (idempotent) {
+            idempotencyIndex.put(taskId, execution.getRunId());
         }
+
+        CompletableFuture<String> result = WorkflowStub.fromTyped(workflow)
+                .getResultAsync(waitTimeout.toMillis(), TimeUnit.MILLISECONDS, String.class);
+        return awaitSyncResult(result, DispatchMetrics.TYPE_SYNC, region, taskId, execution.getRunId(), startTime);
+    }
+
+    /**
+     * 等待已有 SYNC 执行的结果，超时回退为返回其 RunID
+     */
+    private CompletableFuture<String> awaitExisting(String region, String taskId, String runId, long startTime) {
+        Duration waitTimeout = temporalProperties.getDispatch().getSyncWaitTimeout();
+        WorkflowTargetOptions target = WorkflowTargetOptions.newBuilder().setWorkflowId(taskId).setRunId(runId).build();
+        CompletableFuture<String> result = workflowClient.newUntypedWorkflowStub(target)
+                .getResultAsync(waitTimeout.toMillis(), TimeUnit.MILLISECONDS, String.class);
+        return awaitSyncResult(result, DispatchMetrics.TYPE_SYNC, region, taskId, runId, startTime);
+    }
+
+    /**
+     * 处理同步任务 (Session Update)
+     * <p>
+     * 通过 update-with-start 发送到 ping-session-{taskQueue}：会话不存在时顺带启动，存在时直接复用；
+     * Update ID 使用 taskId，重复提交不会重复执行。
+     */
+    private CompletableFuture<String> dispatchSession(String region, String taskQueue, String taskId, String command) {
+        log.info("[SYNC] 开始会话调用: Region={}, Queue={}, ID={}", region, taskQueue, taskId);
+        long startTime = System.nanoTime();
+        WorkflowUpdateHandle<String> handle;
+        try {
+            WorkflowOptions options = WorkflowOptions.newBuilder()
+                    .setTaskQueue(taskQueue)
+                    .setWorkflowId(SESSION_WORKFLOW_ID_PREFIX + taskQueue)
+                    // 会话已在运行则直接复用
+                    .setWorkflowIdConflictPolicy(WorkflowIdConflictPolicy.WORKFLOW_ID_CONFLICT_POLICY_USE_EXISTING)
+                    .setDisableEagerExecution(!isEagerStart(taskQueue))
+                    .build();
+            PingSessionWorkflow session = workflowClient.newWorkflowStub(PingSessionWorkflow.class, options);
+            handle = WorkflowClient.startUpdateWithStart(
+                    session::ping,
+                    command,
+                    UpdateOptions.<String>newBuilder()
+                            .setUpdateId(taskId)
+                            .setWaitForStage(WorkflowUpdateStage.ACCEPTED)
+                            .build(),
+                    new WithStartWorkflowOperation<>(session::run,
+                            temporalProperties.getDispatch().getSessionMaxUpdatesPerRun())
+            );
+        } catch (Exception e) {
+            dispatchMetrics.record(DispatchMetrics.TYPE_SESSION, region, DispatchMetrics.OUTCOME_ERROR, startTime);
+            log.error("[SYNC] 调用系统异常: Region={}, ID={}", region, taskId, e);
+            return CompletableFuture.failedFuture(new RuntimeException("同步任务系统异常", e));
+        }
+
+        Duration waitTimeout = temporalProperties.getDispatch().getSyncWaitTimeout();
+        CompletableFuture<String> result = handle.getResultAsync(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        // 会话模式没有独立的 Workflow 可供查询状态，超时即失败
+        return awaitSyncResult(result, DispatchMetrics.TYPE_SESSION, region, taskId, null, startTime);
+    }
+
+    /**
+     * 同步结果处理：成功返回结果；等待超时且有 fallbackRunId 时回退为 RunID 返回，否则转换为异常
+     */
+    private CompletableFuture<String> awaitSyncResult(CompletableFuture<String> result, String type, String region,
+                                                      String taskId, String fallbackRunId, long startTime) {
+        return result.handle((value, ex) -> {
+            long costTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            if (ex == null) {
+                dispatchMetrics.record(type, region, DispatchMetrics.OUTCOME_SUCCESS, startTime);
+                log.info("[SYNC] 任务执行完成: Region={}, ID={}, Result={}, Cost={}ms", region, taskId, value, costTime);
+                // 同步模式直接返回业务结果
+                return value;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof TimeoutException || cause instanceof WorkflowUpdateTimeoutOrCancelledException) {
+                if (fallbackRunId != null) {
+                    dispatchMetrics.record(type, region, DispatchMetrics.OUTCOME_FALLBACK, startTime);
+                    log.warn("[SYNC] 等待结果超时，回退为异步返回: Region={}, ID={}, RunID={}, Cost={}ms",
+                            region, taskId, fallbackRunId, costTime);
+                    return fallbackRunId;
+                }
+                dispatchMetrics.record(type, region, DispatchMetrics.OUTCOME_TIMEOUT, startTime);
+                log.error("[SYNC] 等待结果超时: Region={}, ID={}, Cost={}ms", region, taskId, costTime);
+                throw new RuntimeException("同步任务等待超时", cause);
+            }
+            if (cause instanceof WorkflowException) {
+                dispatchMetrics.record(type, region, DispatchMetrics.OUTCOME_FAILED, startTime);
+                if (fallbackRunId != null) {
+                    // 执行已失败，相同幂等键可立即重新提交
+                    idempotencyIndex.remove(taskId, fallbackRunId);
+                }
+                log.error("[SYNC] 任务执行异常: Region={}, ID={}", region, taskId, cause);
+                throw new RuntimeException("同步任务执行失败: " + cause.getMessage(), cause);
+            }
+            dispatchMetrics.record(type, region, DispatchMetrics.OUTCOME_ERROR, startTime);
+            log.error("[SYNC] 调用系统异常: Region={}, ID={}", region, taskId, cause);
+            throw new RuntimeException("同步任务系统异常", cause);
+        });
     }
 
     /**
@@ -122,15 +556,25 @@ public class TaskDispatchService {
      */
     /**
      * 查询任务状态 (非阻塞)
+     * <p>
+     * 优先读取本地缓存，同一 taskId 的并发查询合并为一次 RPC
      *
      * @param taskId 你的业务任务ID (WorkflowId)
      * @return TaskStatus 对象
      */
     public TaskStatus checkStatus(String taskId) {
+        requireWorkflowTaskId(taskId);
+        return taskStatusCache.get(taskId, this::loadStatus);
+    }
+
+    /**
+     * 通过 describe (+ getResult) RPC 从 Temporal 查询任务状态
+     */
+    private TaskStatus loadStatus(String taskId) {
         try {
             // 1. 创建无类型的 Stub (UntypedStub)
             // 这是一个轻量级对象，用于操作已存在的 Workflow
-            WorkflowStub stub = workflowClient.newUntypedWorkflowStub(taskId, Optional.empty(), Optional.empty());
+            WorkflowStub stub = workflowClient.newUntypedWorkflowStub(taskId);
 
             // 2. 调用 Describe 获取元数据 (这是一个 RPC 请求)
             // 注意：如果 WorkflowId 不存在，这里会抛出异常
@@ -152,7 +596,7 @@ public class TaskDispatchService {
                     status.setStatus("SUCCESS");
                     // 只有成功时，才去获取结果
                     // getResult(Class) 在已完成的任务上调用是立即返回的，不会阻塞
-                    String resultPayload = stub.getResult(String.class);
+                    String resultPayload = readResult(stub, executionInfo.getType().getName());
                     status.setResult(resultPayload);
                     break;
 
@@ -185,12 +629,61 @@ public class TaskDispatchService {
 
             return status;
 
-        } catch (Exception e) {
-            // 如果 ID 不存在，或者连接不上 Temporal
+        } catch (WorkflowNotFoundException e) {
+            // 只有 ID 确实不存在才返回 NOT_FOUND；连接不上 Temporal 等瞬时错误向上抛出，不进入缓存
             return new TaskStatus(taskId, null, "NOT_FOUND", null, e.getMessage());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("任务结果序列化失败: " + taskId, e);
         }
     }
 
+    /**
+     * 读取已完成 Workflow 的结果，批量 Workflow 的结构化结果转为 JSON 字符串
+     */
+    private String readResult(WorkflowStub stub, String workflowType) throws JsonProcessingException {
+        if (BATCH_WORKFLOW_TYPE.equals(workflowType)) {
+            return objectMapper.writeValueAsString(stub.getResult(BatchTaskResult.class));
+        }
+        return stub.getResult(String.class);
+    }
+
+    /**
+     * 查询任务进度：读取执行中 Activity 最近一次心跳携带的进度
+     * <p>
+     * 心跳详情只保存在服务端的待执行 Activity 上，Workflow 代码读不到，因此不走 Workflow Query，
+     * 而是通过 describe 读取，Worker 不在线时同样可查。批量 Workflow 取最近一次心跳的 Activity。
+     *
+     * @param taskId 你的业务任务ID (WorkflowId)
+     * @return 进度；没有执行中的 Activity 或尚未上报心跳时为 empty
+     * @throws io.temporal.client.WorkflowNotFoundException 任务不存在
+     */
+    public Optional<TaskProgress> getProgress(String taskId) {
+        requireWorkflowTaskId(taskId);
+        WorkflowStub stub = workflowClient.newUntypedWorkflowStub(taskId);
+        return stub.describe().getRawDescription().getPendingActivitiesList().stream()
+                .filter(PendingActivityInfo::hasHeartbeatDetails)
+                .max(Comparator.comparingLong(activity -> activity.getLastHeartbeatTime().getSeconds()))
+                .map(activity -> workflowClient.getOptions().getDataConverter().fromPayloads(0,
+                        Optional.of(activity.getHeartbeatDetails()), TaskProgress.class, TaskProgress.class));
+    }
+
+    /**
+     * 取消任务
+     * <p>
+     * 请求取消后 Workflow 立即以 CANCELED 结束，执行中的 Activity 在下一次心跳时收到取消并停止
+     *
+     * @param taskId 你的业务任务ID (WorkflowId)
+     * @param reason 取消原因，可为空
+     * @throws io.temporal.client.WorkflowNotFoundException 任务不存在或已结束
+     */
+    public void cancelTask(String taskId, String reason) {
+        requireWorkflowTaskId(taskId);
+        WorkflowStub stub = workflowClient.newUntypedWorkflowStub(taskId);
+        stub.cancel(reason);
+        taskStatusCache.invalidate(taskId);
+        log.info("任务已请求取消: TaskId={}, Reason={}", taskId, reason);
+    }
+
     /**
      * 同步获取任务状态方式（阻塞等待或带超时）
      *
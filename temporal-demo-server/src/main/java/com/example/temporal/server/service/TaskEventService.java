@@ -0,0 +1,242 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.model.TaskStatus;
+import com.example.temporal.server.config.TemporalProperties;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowException;
+import io.temporal.client.WorkflowServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 任务完成事件推送 (SSE)
+ * <p>
+ * 每个 taskId 只维护一个结果监听 (getResultAsync 长轮询，不占用线程)，所有订阅该 taskId 的连接共享；
+ * 任务结束后查询一次终态并推送给全部订阅者。长轮询有超时，超时后仍有订阅者才重新发起，
+ * 最后一个订阅者离开后监听在当前这次长轮询结束时停止。
+ * 只有长轮询以 Workflow 结果或 WorkflowException 结束、且查询到终态 (或不存在) 时才推送；
+ * gRPC 不可用、通道关闭等瞬时错误不代表任务已结束，按指数退避重新等待。
+ *
+ * @author 0xNPC
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskEventService {
+
+    public static final String EVENT_NAME = "task-status";
+
+    private final WorkflowClient workflowClient;
+
+    private final TaskDispatchService taskDispatchService;
+
+    private final TaskStatusCache taskStatusCache;
+
+    private final TemporalProperties temporalProperties;
+
+    private final ExecutorService dispatchExecutor;
+
+    /**
+     * taskId -> 共享的结果监听
+     */
+    private final ConcurrentMap<String, TaskWatch> watches = new ConcurrentHashMap<>();
+
+    /**
+     * 订阅一组任务的完成事件，所有任务都推送后连接自动关闭
+     *
+     * @param taskIds 业务任务ID列表
+     * @return SSE 连接
+     */
+    public SseEmitter subscribe(Collection<String> taskIds) {
+        taskIds.forEach(TaskDispatchService::requireWorkflowTaskId);
+        Set<String> pending = new LinkedHashSet<>(taskIds);
+        SseEmitter emitter = new SseEmitter(temporalProperties.getEvents().getTimeout().toMillis());
+        Subscription subscription = new Subscription(emitter, pending);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscription));
+
+        for (String taskId : pending) {
+            watches.compute(taskId, (key, watch) -> {
+                TaskWatch target = watch == null ? startWatch(key) : watch;
+                target.subscribers.add(subscription);
+                return target;
+            });
+        }
+        return emitter;
+    }
+
+    /**
+     * 当前监听中的 taskId 数量
+     */
+    public int watchCount() {
+        return watches.size();
+    }
+
+    private TaskWatch startWatch(String taskId) {
+        TaskWatch watch = new TaskWatch(taskId);
+        poll(watch);
+        return watch;
+    }
+
+    /**
+     * 发起一次有超时的结果长轮询；cancel 返回的 future 不会停止 SDK 内部的长轮询，所以不能用无超时版本
+     */
+    private void poll(TaskWatch watch) {
+        Duration pollTimeout = temporalProperties.getEvents().getPollTimeout();
+        workflowClient.newUntypedWorkflowStub(watch.taskId)
+                .getResultAsync(pollTimeout.toMillis(), TimeUnit.MILLISECONDS, String.class)
+                // 回调放到虚拟线程上，避免在 gRPC 回调线程或 compute 锁内执行 describe RPC
+                .whenCompleteAsync((result, e) -> onPollDone(watch, e), dispatchExecutor);
+    }
+
+    private void onPollDone(TaskWatch watch, Throwable e) {
+        if (watch.stopped) {
+            return;
+        }
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+            // 任务仍在执行，订阅者还在则继续等待
+            watch.failures = 0;
+            poll(watch);
+            return;
+        }
+        if (cause != null && (!(cause instanceof WorkflowException) || cause instanceof WorkflowServiceException)) {
+            // 不是 Workflow 本身的结果 (如 UNAVAILABLE、DEADLINE_EXCEEDED、通道关闭)，任务未必已结束
+            retry(watch, cause);
+            return;
+        }
+        onWatchDone(watch);
+    }
+
+    /**
+     * 退避后重新发起长轮询，间隔从 pollRetryBackoff 开始翻倍，不超过 pollTimeout
+     */
+    private void retry(TaskWatch watch, Throwable cause) {
+        TemporalProperties.Events events = temporalProperties.getEvents();
+        long backoffMillis = Math.min(events.getPollRetryBackoff().toMillis() << Math.min(watch.failures, 10),
+                events.getPollTimeout().toMillis());
+        watch.failures++;
+        log.warn("任务结果监听异常，{}ms 后重试: ID={}, Error={}", backoffMillis, watch.taskId,
+                cause == null ? "任务尚未结束" : cause.toString());
+        CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS, dispatchExecutor).execute(() -> {
+            if (!watch.stopped) {
+                poll(watch);
+            }
+        });
+    }
+
+    private void onWatchDone(TaskWatch watch) {
+        // 结果已产生，丢弃可能缓存的 RUNNING，查询一次终态（随后进入缓存，供轮询方复用）
+        taskStatusCache.invalidate(watch.taskId);
+        TaskStatus status;
+        try {
+            status = taskDispatchService.checkStatus(watch.taskId);
+        } catch (RuntimeException e) {
+            // 查询终态失败 (如 Temporal 暂时不可用)，不推送，退避后重新等待
+            retry(watch, e);
+            return;
+        }
+        if (!TaskStatusCache.isTerminal(status) && !"NOT_FOUND".equals(status.getStatus())) {
+            // 只推送终态，避免把仍在执行的任务当作已完成推送并关闭订阅
+            retry(watch, null);
+            return;
+        }
+        // 先从 map 中移除，之后的订阅会新建监听，保证这里遍历的订阅者集合不再变化
+        watches.remove(watch.taskId, watch);
+        for (Subscription subscription : watch.subscribers) {
+            subscription.deliver(status);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        for (String taskId : subscription.taskIds) {
+            watches.computeIfPresent(taskId, (key, watch) -> {
+                watch.subscribers.remove(subscription);
+                if (watch.subscribers.isEmpty()) {
+                    watch.stopped = true;
+                    return null;
+                }
+                return watch;
+            });
+        }
+    }
+
+    /**
+     * 单个 taskId 的结果监听
+     */
+    private static class TaskWatch {
+
+        private final String taskId;
+
+        private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+
+        /**
+         * 已没有订阅者，当前长轮询结束后不再继续
+         */
+        private volatile boolean stopped;
+
+        /**
+         * 连续失败次数，决定下一次重试的退避间隔；回调依次执行，不会并发修改
+         */
+        private volatile int failures;
+
+        TaskWatch(String taskId) {
+            this.taskId = taskId;
+        }
+
+    }
+
+    /**
+     * 单个 SSE 连接
+     */
+    private static class Subscription {
+
+        private final SseEmitter emitter;
+
+        private final Set<String> taskIds;
+
+        private final AtomicInteger remaining;
+
+        Subscription(SseEmitter emitter, Set<String> taskIds) {
+            this.emitter = emitter;
+            this.taskIds = taskIds;
+            this.remaining = new AtomicInteger(taskIds.size());
+        }
+
+        void deliver(TaskStatus status) {
+            try {
+                synchronized (this) {
+                    emitter.send(SseEmitter.event()
+                            .name(EVENT_NAME)
+                            .id(status.getTaskId())
+                            .data(status));
+                }
+            } catch (Exception e) {
+                log.debug("SSE 推送失败，连接可能已关闭: ID={}", status.getTaskId(), e);
+                emitter.completeWithError(e);
+                return;
+            }
+            if (remaining.decrementAndGet() == 0) {
+                emitter.complete();
+            }
+        }
+
+    }
+
+}
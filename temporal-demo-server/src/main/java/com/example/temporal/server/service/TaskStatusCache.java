@@ -0,0 +1,127 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.model.TaskStatus;
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.server.controller.vo.response.StatusCacheStatsResp;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 任务状态本地缓存
+ * <p>
+ * 终态（SUCCESS/FAILED/TIMEOUT/CANCELED/KILLED）不会再变化，缓存至被容量淘汰；
+ * 其余状态仅缓存 runningTtl。缓存值是 CompletableFuture，同一 taskId 的并发查询共享同一个进行中的 RPC。
+ *
+ * @author 0xNPC
+ */
+@Component
+public class TaskStatusCache {
+
+    private static final Set<String> TERMINAL_STATES = Set.of("SUCCESS", "FAILED", "TIMEOUT", "CANCELED", "KILLED");
+
+    private static final Duration FOREVER = Duration.ofNanos(Long.MAX_VALUE);
+
+    private final AsyncCache<String, TaskStatus> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    @Autowired
+    public TaskStatusCache(TemporalProperties temporalProperties, ExecutorService dispatchExecutor) {
+        this(temporalProperties, dispatchExecutor, Ticker.systemTicker());
+    }
+
+    /**
+     * @param ticker 过期判断使用的时钟，测试时可替换
+     */
+    TaskStatusCache(TemporalProperties temporalProperties, ExecutorService dispatchExecutor, Ticker ticker) {
+        TemporalProperties.StatusCache config = temporalProperties.getStatusCache();
+        Duration runningTtl = config.getRunningTtl();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(Expiry.<String, TaskStatus>creating((taskId, status) ->
+                        isTerminal(status) ? FOREVER : runningTtl))
+                // 加载函数是阻塞 RPC，放到虚拟线程上执行
+                .executor(dispatchExecutor)
+                .ticker(ticker)
+                .buildAsync();
+    }
+
+    /**
+     * 是否为终态
+     */
+    public static boolean isTerminal(TaskStatus status) {
+        return status != null && TERMINAL_STATES.contains(status.getStatus());
+    }
+
+    /**
+     * 读取任务状态，未命中时调用 loader 加载
+     * <p>
+     * loader 抛出的异常原样抛给所有等待方，失败的加载不会留在缓存中，下次查询重新加载
+     *
+     * @param taskId 业务任务ID
+     * @param loader 实际查询 Temporal 的函数
+     * @return 任务状态
+     */
+    public TaskStatus get(String taskId, Function<String, TaskStatus> loader) {
+        CompletableFuture<TaskStatus> future = cache.getIfPresent(taskId);
+        if (future != null && future.isCompletedExceptionally()) {
+            // 失败的加载由 Caffeine 在完成回调中异步移除，移除前到达的查询不复用失败结果
+            cache.asMap().remove(taskId, future);
+            future = null;
+        }
+        if (future != null) {
+            if (future.isDone()) {
+                hits.increment();
+            } else {
+                coalesced.increment();
+            }
+            return join(future);
+        }
+        misses.increment();
+        return join(cache.get(taskId, (key, executor) -> CompletableFuture.supplyAsync(() -> loader.apply(key), executor)));
+    }
+
+    private static TaskStatus join(CompletableFuture<TaskStatus> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 主动失效，任务状态发生变化（如取消）时调用
+     */
+    public void invalidate(String taskId) {
+        cache.synchronous().invalidate(taskId);
+    }
+
+    public StatusCacheStatsResp stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long coalescedCount = coalesced.sum();
+        long total = hitCount + missCount + coalescedCount;
+        double saved = total == 0 ? 0D : (double) (hitCount + coalescedCount) / total;
+        return new StatusCacheStatsResp(hitCount, missCount, coalescedCount, cache.synchronous().estimatedSize(), saved);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.server.config.TemporalProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link IdempotencyIndex}：索引读写与按 RunID 条件移除
+ *
+ * @author 0xNPC
+ */
+class IdempotencyIndexTest {
+
+    private final IdempotencyIndex index = new IdempotencyIndex(new TemporalProperties());
+
+    @Test
+    void returnsIndexedRunId() {
+        assertNull(index.getRunId("order-1"));
+
+        index.put("order-1", "run-1");
+
+        assertEquals("run-1", index.getRunId("order-1"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removeDropsMatchingRunId() {
+        index.put("order-1", "run-1");
+
+        index.remove("order-1", "run-1");
+
+        assertNull(index.getRunId("order-1"));
+    }
+
+    @Test
+    void removeKeepsNewerRunId() {
+        // 旧执行失败后已重新提交，旧执行的清理不能删掉新执行的索引项
+        index.put("order-1", "run-1");
+        index.put("order-1", "run-2");
+
+        index.remove("order-1", "run-1");
+
+        assertEquals("run-2", index.getRunId("order-1"));
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.common.TaskActivity;
+import com.example.temporal.model.TaskArgs;
+import com.example.temporal.server.config.TemporalProperties;
+import com.example.temporal.server.constants.TaskType;
+import com.example.temporal.worker.WorkerStarter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.client.WorkflowFailedException;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link TaskDispatchService} 幂等下发：重复提交、失败后重新提交与同一幂等键的并发提交
+ * <p>
+ * 使用内存版 Temporal 服务与本地 Worker，Workflow 实现与生产一致，TaskActivity 替换为 {@link TestTaskActivity}
+ *
+ * @author 0xNPC
+ */
+class TaskDispatchServiceIdempotencyTest {
+
+    private static final String REGION = "queue-test";
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final TestTaskActivity taskActivity = new TestTaskActivity();
+
+    private final TemporalProperties temporalProperties = new TemporalProperties();
+
+    private TestWorkflowEnvironment testEnv;
+
+    private ExecutorService dispatchExecutor;
+
+    private TaskDispatchService taskDispatchService;
+
+    @BeforeEach
+    void start() {
+        testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setUseTimeskipping(false)
+                .build());
+        Worker worker = testEnv.newWorker(REGION);
+        WorkerStarter.registerImplementations(worker, taskActivity);
+        testEnv.start();
+        dispatchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        taskDispatchService = newDispatchService(new IdempotencyIndex(temporalProperties));
+    }
+
+    @AfterEach
+    void close() {
+        taskActivity.release.countDown();
+        testEnv.close();
+        dispatchExecutor.shutdownNow();
+    }
+
+    @Test
+    void duplicateAsyncSubmitReturnsExistingRun() throws Exception {
+        String runId = dispatch(TaskType.ASYNC, "order-1", TestTaskActivity.BLOCK);
+
+        assertEquals(runId, dispatch(TaskType.ASYNC, "order-1", TestTaskActivity.BLOCK));
+        assertEquals(1, taskActivity.awaitStarted(1));
+    }
+
+    @Test
+    void duplicateSubmitFromAnotherInstanceReturnsExistingRun() throws Exception {
+        String runId = dispatch(TaskType.ASYNC, "order-1", TestTaskActivity.BLOCK);
+        // 另一个实例的本地索引中没有该幂等键，由 WorkflowId 去重返回已有执行
+        TaskDispatchService otherInstance = newDispatchService(new IdempotencyIndex(temporalProperties));
+
+        String duplicateRunId = otherInstance.dispatchTask(TaskType.ASYNC, REGION, "order-1", TestTaskActivity.BLOCK,
+                false, true).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(runId, duplicateRunId);
+        assertEquals(1, taskActivity.awaitStarted(1));
+    }
+
+    @Test
+    void duplicateSyncSubmitWaitsForExistingRun() throws Exception {
+        String runId = dispatch(TaskType.ASYNC, "order-1", TestTaskActivity.BLOCK);
+        CompletableFuture<String> duplicate = taskDispatchService.dispatchTask(TaskType.SYNC, REGION, "order-1",
+                "ignored", false, true);
+        taskActivity.awaitStarted(1);
+
+        taskActivity.release.countDown();
+
+        assertEquals("done:" + TestTaskActivity.BLOCK, duplicate.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(runId, taskDispatchService.checkStatus("order-1").getRunId());
+        assertEquals(1, taskActivity.started.get());
+    }
+
+    @Test
+    void resubmitAfterFailureStartsNewRun() throws Exception {
+        String failedRunId = dispatch(TaskType.ASYNC, "order-1", TestTaskActivity.FAIL);
+        assertThrows(WorkflowFailedException.class,
+                () -> testEnv.getWorkflowClient().newUntypedWorkflowStub("order-1").getResult(String.class));
+
+        String runId = dispatch(TaskType.ASYNC, "order-1", "retry");
+
+        assertNotEquals(failedRunId, runId);
+        assertEquals("done:retry",
+                testEnv.getWorkflowClient().newUntypedWorkflowStub("order-1").getResult(String.class));
+        // 新执行成功后，再次提交返回的是新执行
+        assertEquals(runId, dispatch(TaskType.ASYNC, "order-1", "retry"));
+    }
+
+    @Test
+    void concurrentSubmitsStartOneExecution() throws Exception {
+        int submitters = 32;
+        CountDownLatch ready = new CountDownLatch(1);
+        List<CompletableFuture<String>> runIds = new ArrayList<>(submitters);
+        for (int i = 0; i < submitters; i++) {
+            runIds.add(CompletableFuture.supplyAsync(() -> {
+                await(ready);
+                return taskDispatchService.dispatchTask(TaskType.ASYNC, REGION, "order-1", TestTaskActivity.BLOCK,
+                        false, true).join();
+            }, dispatchExecutor));
+        }
+
+        ready.countDown();
+
+        String runId = runIds.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        for (CompletableFuture<String> other : runIds) {
+            assertEquals(runId, other.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(1, taskActivity.awaitStarted(1));
+    }
+
+    private String dispatch(TaskType taskType, String taskId, String command) throws Exception {
+        return taskDispatchService.dispatchTask(taskType, REGION, taskId, command, false, true)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private TaskDispatchService newDispatchService(IdempotencyIndex idempotencyIndex) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DispatchMetrics dispatchMetrics = new DispatchMetrics(meterRegistry, temporalProperties);
+        TaskDispatchService service = new TaskDispatchService(testEnv.getWorkflowClient(), temporalProperties,
+                dispatchExecutor, new TaskStatusCache(temporalProperties, dispatchExecutor), new ObjectMapper(),
+                dispatchMetrics, new RegionAdmission(temporalProperties, dispatchMetrics),
+                new RegionRouter(testEnv.getWorkflowClient(), temporalProperties, meterRegistry, dispatchMetrics),
+                idempotencyIndex);
+        service.init();
+        return service;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * payload 为 {@link #FAIL} 时直接失败 (不重试)，为 {@link #BLOCK} 时阻塞到 release，其余直接返回
+     */
+    private static class TestTaskActivity implements TaskActivity {
+
+        static final String FAIL = "fail";
+
+        static final String BLOCK = "block";
+
+        private final AtomicInteger started = new AtomicInteger();
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String runBusinessLogic(String payload, TaskArgs taskArgs) {
+            started.incrementAndGet();
+            if (FAIL.equals(payload)) {
+                throw ApplicationFailure.newNonRetryableFailure("test failure", "TestFailure");
+            }
+            if (BLOCK.equals(payload)) {
+                await(release);
+            }
+            return "done:" + payload;
+        }
+
+        /**
+         * 等待至少 expected 次执行开始，再稍等确认没有多余的执行
+         *
+         * @return 已开始的执行次数
+         */
+        int awaitStarted(int expected) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (started.get() < expected && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+            return started.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.example.temporal.server.service;
+
+import com.example.temporal.model.TaskStatus;
+import com.example.temporal.server.config.TemporalProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link TaskStatusCache}：按状态过期、并发合并与失败不缓存
+ *
+ * @author 0xNPC
+ */
+class TaskStatusCacheTest {
+
+    private static final Duration RUNNING_TTL = Duration.ofSeconds(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final TaskStatusCache cache = newCache();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void terminalStatusNeverExpires() {
+        CountingLoader loader = new CountingLoader("SUCCESS");
+
+        cache.get("t1", loader);
+        nanos.addAndGet(Duration.ofDays(1).toNanos());
+        TaskStatus status = cache.get("t1", loader);
+
+        assertEquals("SUCCESS", status.getStatus());
+        assertEquals(1, loader.calls.get());
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @Test
+    void runningStatusExpiresAfterTtl() {
+        CountingLoader loader = new CountingLoader("RUNNING");
+
+        cache.get("t1", loader);
+        nanos.addAndGet(RUNNING_TTL.toNanos() - 1);
+        cache.get("t1", loader);
+        assertEquals(1, loader.calls.get());
+
+        nanos.addAndGet(2);
+        cache.get("t1", loader);
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    void invalidateDropsTerminalStatus() {
+        CountingLoader loader = new CountingLoader("SUCCESS");
+
+        cache.get("t1", loader);
+        cache.invalidate("t1");
+        cache.get("t1", loader);
+
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    void concurrentLookupsShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, TaskStatus> loader = taskId -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return status(taskId, "SUCCESS");
+        };
+
+        CompletableFuture<TaskStatus> first = CompletableFuture.supplyAsync(() -> cache.get("t1", loader), executor);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<TaskStatus> second = CompletableFuture.supplyAsync(() -> cache.get("t1", loader), executor);
+        // 第二个查询进入等待后再放行加载
+        while (cache.stats().getCoalesced() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.stats().getMisses());
+        assertEquals(1, cache.stats().getCoalesced());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, TaskStatus> loader = taskId -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("UNAVAILABLE");
+            }
+            return status(taskId, "RUNNING");
+        };
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> cache.get("t1", loader));
+        assertEquals("UNAVAILABLE", e.getMessage());
+        assertEquals("RUNNING", cache.get("t1", loader).getStatus());
+        assertEquals(2, calls.get());
+    }
+
+    private TaskStatusCache newCache() {
+        TemporalProperties properties = new TemporalProperties();
+        properties.getStatusCache().setRunningTtl(RUNNING_TTL);
+        return new TaskStatusCache(properties, executor, nanos::get);
+    }
+
+    private static TaskStatus status(String taskId, String status) {
+        return new TaskStatus(taskId, "run-1", status, null, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CountingLoader implements Function<String, TaskStatus> {
+
+        private final String status;
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingLoader(String status) {
+            this.status = status;
+        }
+
+        @Override
+        public TaskStatus apply(String taskId) {
+            calls.incrementAndGet();
+            return TaskStatusCacheTest.status(taskId, status);
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.example.temporal.common;
+
+
+import com.example.temporal.model.BatchTaskInput;
+import com.example.temporal.model.BatchTaskResult;
+import com.example.temporal.model.TaskArgs;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.workflow.Async;
+import io.temporal.workflow.Promise;
+import io.temporal.workflow.Workflow;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 批量任务Workflow的实现类
+ * <p>
+ * 以滑动窗口方式执行：同时最多 parallelism 个 Activity，任意一个完成即补充下一个；
+ * 每处理 itemsPerRun 个任务 continue-as-new，只携带剩余 payload 与累计计数
+ *
+ * @author 0xNPC
+ */
+public class BatchTaskWorkflowImpl implements BatchTaskWorkflow {
+
+    @Override
+    public BatchTaskResult executeBatch(BatchTaskInput input) {
+        TaskArgs taskArgs = input.getArgs() == null ? TaskArgs.builder().build() : input.getArgs();
+        Duration executionTimeout = taskArgs.getExecutionTimeout() == null
+                ? Duration.ofMinutes(10) : taskArgs.getExecutionTimeout();
+        Integer retryCount = taskArgs.getRetryCount() == null ? 1 : taskArgs.getRetryCount();
+        // 0 表示不启用心跳超时 (ActivityOptions 中 ZERO 即未设置)
+        Duration heartbeatTimeout = taskArgs.getHeartbeatTimeout() == null
+                ? Duration.ofSeconds(10) : taskArgs.getHeartbeatTimeout();
+        int parallelism = input.getParallelism() == null || input.getParallelism() < 1 ? 1 : input.getParallelism();
+        int itemsPerRun = input.getItemsPerRun() == null || input.getItemsPerRun() < 1 ? 500 : input.getItemsPerRun();
+        int offset = input.getOffset() == null ? 0 : input.getOffset();
+        BatchTaskResult result = input.getResult() == null ? new BatchTaskResult() : input.getResult();
+
+        TaskActivity activity = Workflow.newActivityStub(
+                TaskActivity.class,
+                ActivityOptions.newBuilder()
+                        // 单个任务最长执行时间
+                        .setStartToCloseTimeout(executionTimeout)
+                        // Worker 失联后不必等到 start-to-close 超时即可重试，取消请求也随心跳响应送达 Activity
+                        .setHeartbeatTimeout(heartbeatTimeout)
+                        .setRetryOptions(RetryOptions.newBuilder()
+                                // 失败重试
+                                .setMaximumAttempts(retryCount)
+                                .build())
+                        .build());
+
+        List<String> payloads = input.getPayloads();
+        int runSize = Math.min(itemsPerRun, payloads.size());
+        List<InFlight> window = new ArrayList<>(parallelism);
+        for (int i = 0; i < runSize; i++) {
+            if (window.size() >= parallelism) {
+                // 等待任意一个完成（Promise.anyOf 遇到失败会直接抛出，这里只关心是否完成）
+                Workflow.await(() -> window.stream().anyMatch(InFlight::isCompleted));
+                drainCompleted(window, result);
+            }
+            window.add(new InFlight(offset + i, Async.function(activity::runBusinessLogic, payloads.get(i), taskArgs)));
+        }
+        Workflow.await(() -> window.stream().allMatch(InFlight::isCompleted));
+        drainCompleted(window, result);
+
+        if (runSize < payloads.size()) {
+            // 只携带剩余部分，History 不随批次总量增长
+            input.setPayloads(new ArrayList<>(payloads.subList(runSize, payloads.size())));
+            input.setOffset(offset + runSize);
+            input.setResult(result);
+            Workflow.continueAsNew(input);
+        }
+        return result;
+    }
+
+    private void drainCompleted(List<InFlight> window, BatchTaskResult result) {
+        Iterator<InFlight> iterator = window.iterator();
+        while (iterator.hasNext()) {
+            InFlight item = iterator.next();
+            if (!item.isCompleted()) {
+                continue;
+            }
+            RuntimeException failure = item.promise().getFailure();
+            if (failure == null) {
+                result.recordSuccess();
+            } else {
+                // ActivityFailure 只描述调度信息，真正的失败原因在 cause 中
+                Throwable cause = failure.getCause() == null ? failure : failure.getCause();
+                result.recordFailure(item.index(), cause.getMessage());
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 执行中的任务及其在批次中的序号
+     */
+    private record InFlight(int index, Promise<String> promise) {
+
+        boolean isCompleted() {
+            return promise.isCompleted();
+        }
+
+    }
+
+}
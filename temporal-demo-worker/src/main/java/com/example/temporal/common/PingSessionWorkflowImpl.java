@@ -0,0 +1,45 @@
+package com.example.temporal.common;
+
+
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.workflow.Workflow;
+
+import java.time.Duration;
+
+/**
+ * 会话方式Workflow的实现类，Ping 以 Local Activity 执行，不产生 Activity Task 调度
+ *
+ * @author 0xNPC
+ */
+public class PingSessionWorkflowImpl implements PingSessionWorkflow {
+
+    private final PingActivity activity = Workflow.newLocalActivityStub(
+            PingActivity.class,
+            LocalActivityOptions.newBuilder()
+                    .setStartToCloseTimeout(Duration.ofSeconds(10))
+                    .setRetryOptions(RetryOptions.newBuilder()
+                            .setMaximumAttempts(1)
+                            .build())
+                    .build());
+
+    /**
+     * 本次运行已接收的请求数
+     */
+    private int handled;
+
+    @Override
+    public void run(int maxUpdatesPerRun) {
+        Workflow.await(() -> handled >= maxUpdatesPerRun || Workflow.getInfo().isContinueAsNewSuggested());
+        // 等正在处理的 Update 全部返回后再 continue-as-new，避免调用方收到中断
+        Workflow.await(Workflow::isEveryHandlerFinished);
+        Workflow.continueAsNew(maxUpdatesPerRun);
+    }
+
+    @Override
+    public String ping(String payload) {
+        handled++;
+        return activity.ping();
+    }
+
+}
@@ -20,19 +20,24 @@ public class TaskWorkflowImpl implements TaskWorkflow {
         Duration executionTimeout = taskArgs.getExecutionTimeout() == null
                 ? Duration.ofMinutes(10) : taskArgs.getExecutionTimeout();
         Integer retryCount = taskArgs.getRetryCount() == null ? 1 : taskArgs.getRetryCount();
+        // 0 表示不启用心跳超时 (ActivityOptions 中 ZERO 即未设置)
+        Duration heartbeatTimeout = taskArgs.getHeartbeatTimeout() == null
+                ? Duration.ofSeconds(10) : taskArgs.getHeartbeatTimeout();
 
         TaskActivity activity = Workflow.newActivityStub(
                 TaskActivity.class,
                 ActivityOptions.newBuilder()
                         // 单个任务最长执行时间
                         .setStartToCloseTimeout(executionTimeout)
+                        // Worker 失联后不必等到 start-to-close 超时即可重试，取消请求也随心跳响应送达 Activity
+                        .setHeartbeatTimeout(heartbeatTimeout)
                         .setRetryOptions(RetryOptions.newBuilder()
                                 // 失败重试
                                 .setMaximumAttempts(retryCount)
                                 .build())
                         .build());
         // 简单的透传：Workflow 收到 -> 调 Activity -> 返回结果
-        return activity.runBusinessLogic(payload);
+        return activity.runBusinessLogic(payload, taskArgs);
     }
 
 }
@@ -0,0 +1,162 @@
+package com.example.temporal.task;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Worker 本地的任务结果缓存
+ * <p>
+ * 以 payload 的 SHA-256 为 key，按条目数淘汰；每个结果按写入时任务的 resultCacheTtl 过期，
+ * 读取时还要求结果的存活时间不超过本次任务的 resultCacheTtl，否则重新执行并替换。
+ * 缓存值是 CompletableFuture：同一 payload 的并发执行只有一个真正执行，其余等待其结果；
+ * 执行失败时以 null 完成并移除 (不缓存失败)，等待方随后重新竞争执行。
+ *
+ * @author 0xNPC
+ */
+public class ResultCache {
+
+    /**
+     * 等待进行中执行期间调用 whileWaiting 的间隔，用于上报心跳
+     */
+    private static final Duration WAIT_INTERVAL = Duration.ofSeconds(1);
+
+    private final AsyncCache<String, CachedResult> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param maxSize 最多缓存的结果数
+     */
+    public ResultCache(long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, CachedResult>creating((key, value) -> value.ttl()))
+                .buildAsync();
+    }
+
+    /**
+     * 读取缓存结果或执行任务
+     *
+     * @param payload      任务内容
+     * @param ttl          可接受的结果最长存活时间，必须大于 0
+     * @param execution    实际执行任务，在调用线程中运行
+     * @param whileWaiting 等待相同任务执行期间定期调用，可抛出异常 (如取消) 结束等待
+     * @return 任务结果
+     */
+    public String get(String payload, Duration ttl, Supplier<String> execution, Runnable whileWaiting) {
+        String key = sha256(payload);
+        ConcurrentMap<String, CompletableFuture<CachedResult>> map = cache.asMap();
+        while (true) {
+            CompletableFuture<CachedResult> existing = map.get(key);
+            CompletableFuture<CachedResult> created = new CompletableFuture<>();
+            if (existing == null) {
+                if (map.putIfAbsent(key, created) == null) {
+                    return execute(key, created, ttl, execution);
+                }
+            } else if (!existing.isDone()) {
+                CachedResult result = await(existing, whileWaiting);
+                if (result != null) {
+                    coalesced.increment();
+                    return result.result();
+                }
+                // 执行方失败，重新竞争执行
+            } else {
+                CachedResult result = existing.join();
+                if (result == null) {
+                    // 执行失败的条目尚未被移除
+                    map.remove(key, existing);
+                    continue;
+                }
+                if (System.nanoTime() - result.createdNanos() <= ttl.toNanos()) {
+                    hits.increment();
+                    return result.result();
+                }
+                // 对本次任务而言已过期，重新执行
+                if (map.replace(key, existing, created)) {
+                    return execute(key, created, ttl, execution);
+                }
+            }
+        }
+    }
+
+    private String execute(String key, CompletableFuture<CachedResult> created, Duration ttl,
+                           Supplier<String> execution) {
+        misses.increment();
+        String result;
+        try {
+            result = execution.get();
+        } catch (RuntimeException | Error e) {
+            // 以 null 完成而不是 completeExceptionally：失败由调用方自行上报，等待方收到 null 后重新执行
+            cache.asMap().remove(key, created);
+            created.complete(null);
+            throw e;
+        }
+        created.complete(new CachedResult(result, System.nanoTime(), ttl));
+        return result;
+    }
+
+    /**
+     * @return 执行方的结果，执行失败时返回 null
+     */
+    private static CachedResult await(CompletableFuture<CachedResult> future, Runnable whileWaiting) {
+        while (true) {
+            try {
+                return future.get(WAIT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                whileWaiting.run();
+            } catch (ExecutionException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("任务被中断", e);
+            }
+        }
+    }
+
+    private static String sha256(String payload) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 当前统计快照
+     */
+    public ResultCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long coalescedCount = coalesced.sum();
+        long total = hitCount + missCount + coalescedCount;
+        double saved = total == 0 ? 0D : (double) (hitCount + coalescedCount) / total;
+        return new ResultCacheStats(hitCount, missCount, coalescedCount, cache.synchronous().estimatedSize(), saved);
+    }
+
+    /**
+     * @param createdNanos 执行完成时间 (System.nanoTime)
+     * @param ttl          写入时任务的 resultCacheTtl，即条目的过期时间
+     */
+    private record CachedResult(String result, long createdNanos, Duration ttl) {
+    }
+
+}
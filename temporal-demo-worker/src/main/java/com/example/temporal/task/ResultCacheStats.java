@@ -0,0 +1,23 @@
+package com.example.temporal.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 任务结果缓存统计
+ *
+ * @author 0xNPC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultCacheStats {
+
+    private long hits;                  // 命中已缓存结果的次数
+    private long misses;                // 实际执行的次数
+    private long coalesced;             // 等待同一 Worker 上进行中的相同任务并复用其结果的次数
+    private long size;                  // 当前缓存的结果数（估算）
+    private double executionSavedRatio; // 免于执行的任务占比
+
+}
@@ -1,25 +1,253 @@
 package com.example.temporal.task;
 
 import com.example.temporal.common.TaskActivity;
+import com.example.temporal.model.TaskArgs;
+import com.example.temporal.model.TaskProgress;
+import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.client.ActivityCanceledException;
+import io.temporal.client.ActivityCompletionClient;
+import io.temporal.client.ActivityCompletionException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Activity的具体实现
+ * <p>
+ * 支持两种模式：
+ * <ul>
+ *     <li>同步完成（默认）：在 Activity 线程内执行完业务逻辑后返回，整个执行期间占用一个 Activity 槽位</li>
+ *     <li>异步完成：把业务逻辑交给内部执行器后立即返回并调用 doNotCompleteOnReturn，槽位马上释放；
+ *     业务完成后通过 {@link ActivityCompletionClient} 凭 TaskToken 上报结果</li>
+ * </ul>
+ * 业务逻辑分步执行，每步完成后以 {@link TaskProgress} 上报心跳：心跳详情即当前进度，
+ * 重试时从上次心跳的进度继续；Workflow 被取消后，取消请求随下一次心跳响应送达，Activity 随即停止并以取消结束。
+ * <p>
+ * 任务设置了 resultCacheTtl 且 Worker 启用了 {@link ResultCache} 时，相同 payload 的结果在有效期内直接复用，
+ * 并发的相同任务只执行一次，其余任务等待期间照常上报心跳。
  *
  * @author 0xNPC
  */
 @Slf4j
 public class TaskActivityImpl implements TaskActivity {
 
+    private static final int TOTAL_STEPS = 10;
+
+    private static final Duration STEP_TIME = Duration.ofSeconds(1);
+
+    /**
+     * 未设置心跳超时时异步模式的心跳间隔，与 SDK 同步模式的默认节流间隔一致
+     */
+    private static final Duration DEFAULT_HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+
+    private final ActivityCompletionClient completionClient;
+
+    private final ExecutorService executor;
+
+    /**
+     * 异步模式下同时进行中的任务上限，满了之后新任务在 Activity 线程内等待，形成背压
+     */
+    private final Semaphore inFlight;
+
+    private final int maxInFlight;
+
+    /**
+     * 结果缓存，为 null 表示不缓存
+     */
+    private final ResultCache resultCache;
+
+    /**
+     * 同步完成模式
+     */
+    public TaskActivityImpl() {
+        this((ResultCache) null);
+    }
+
+    /**
+     * 同步完成模式
+     *
+     * @param resultCache 结果缓存，为 null 表示不缓存
+     */
+    public TaskActivityImpl(ResultCache resultCache) {
+        this(null, null, 0, resultCache);
+    }
+
+    /**
+     * 异步完成模式
+     *
+     * @param completionClient 用于上报结果的客户端
+     * @param executor         执行业务逻辑的执行器
+     * @param maxInFlight      同时进行中的任务上限
+     */
+    public TaskActivityImpl(ActivityCompletionClient completionClient, ExecutorService executor, int maxInFlight) {
+        this(completionClient, executor, maxInFlight, null);
+    }
+
+    /**
+     * 异步完成模式
+     *
+     * @param completionClient 用于上报结果的客户端
+     * @param executor         执行业务逻辑的执行器
+     * @param maxInFlight      同时进行中的任务上限
+     * @param resultCache      结果缓存，为 null 表示不缓存
+     */
+    public TaskActivityImpl(ActivityCompletionClient completionClient, ExecutorService executor, int maxInFlight,
+                            ResultCache resultCache) {
+        this.completionClient = completionClient;
+        this.executor = executor;
+        this.inFlight = completionClient == null ? null : new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * 结果缓存，未启用时为 null
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * 停机时等待异步完成模式下进行中的任务全部上报结果；同步完成模式由 Worker 自身等待，直接返回
+     *
+     * @return 是否在超时前全部完成
+     */
+    public boolean awaitInFlight(Duration timeout) throws InterruptedException {
+        if (inFlight == null) {
+            return true;
+        }
+        if (!inFlight.tryAcquire(maxInFlight, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        inFlight.release(maxInFlight);
+        return true;
+    }
+
+    /**
+     * 停机宽限期已过：中断异步完成模式下仍在执行的任务，并等待它们以失败上报。
+     * 这些任务运行在自有的执行器上，WorkerFactory.shutdownNow 不会中断它们
+     *
+     * @return 是否在超时前全部上报
+     */
+    public boolean interruptInFlight(Duration timeout) throws InterruptedException {
+        if (executor == null) {
+            return true;
+        }
+        executor.shutdownNow();
+        return awaitInFlight(timeout);
+    }
+
     @Override
-    public String runBusinessLogic(String payload) {
-        log.info("Worker 收到任务: {}", payload);
+    public String runBusinessLogic(String payload, TaskArgs taskArgs) {
+        ActivityExecutionContext context = Activity.getExecutionContext();
+        TaskProgress resumeFrom = context.getHeartbeatDetails(TaskProgress.class).orElse(null);
+        Duration resultCacheTtl = taskArgs == null ? null : taskArgs.getResultCacheTtl();
+        if (completionClient == null) {
+            // SDK 按心跳超时的 80% 节流，取消时 heartbeat 抛出 ActivityCanceledException，由 SDK 上报取消
+            return execute(payload, resultCacheTtl, resumeFrom, context::heartbeat);
+        }
+        byte[] taskToken = context.getTaskToken();
+        Duration heartbeatTimeout = context.getInfo().getHeartbeatTimeout();
+        Duration heartbeatInterval = heartbeatTimeout.isZero()
+                ? DEFAULT_HEARTBEAT_INTERVAL : heartbeatTimeout.dividedBy(2);
+        inFlight.acquireUninterruptibly();
+        try {
+            executor.execute(() -> completeAsync(taskToken, payload, resultCacheTtl, resumeFrom, heartbeatInterval));
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        // 返回值被忽略，结果由 completeAsync 上报
+        context.doNotCompleteOnReturn();
+        return null;
+    }
+
+    private void completeAsync(byte[] taskToken, String payload, Duration resultCacheTtl, TaskProgress resumeFrom,
+                               Duration heartbeatInterval) {
         try {
-            TimeUnit.SECONDS.sleep(10);
-        } catch (InterruptedException e) {
-            log.error("任务执行异常: {}", e.getMessage(), e);
+            String result;
+            try {
+                result = execute(payload, resultCacheTtl, resumeFrom, throttledHeartbeat(taskToken, heartbeatInterval));
+            } catch (ActivityCanceledException e) {
+                log.info("异步任务已取消: {}", payload);
+                completionClient.reportCancellation(taskToken, null);
+                return;
+            } catch (ActivityCompletionException e) {
+                // Activity 已超时或已不存在，结果不会再被接收
+                log.warn("异步任务已失效，停止执行: {}", e.getMessage());
+                return;
+            } catch (Exception e) {
+                log.error("异步任务执行异常: {}", e.getMessage(), e);
+                // 停机中断后仍需上报失败：先清除中断标记，否则阻塞的 gRPC 调用会被立即取消
+                Thread.interrupted();
+                completionClient.completeExceptionally(taskToken, e);
+                return;
+            }
+            completionClient.complete(taskToken, result);
+        } catch (Exception e) {
+            // 通常是 Activity 已超时或已被取消，服务端拒绝了结果
+            log.warn("异步任务结果上报失败: {}", e.getMessage(), e);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * 异步模式自行节流：每次 heartbeat 都是一次 RPC，只在距上次发送超过 interval 时才发送。
+     * 心跳只在步骤结束时发出，实际间隔最长为 interval + 单步耗时，因此 interval 取心跳超时的一半
+     */
+    private Consumer<TaskProgress> throttledHeartbeat(byte[] taskToken, Duration interval) {
+        long[] lastSentNanos = {0};
+        return progress -> {
+            long now = System.nanoTime();
+            if (lastSentNanos[0] == 0 || now - lastSentNanos[0] >= interval.toNanos()) {
+                completionClient.heartbeat(taskToken, progress);
+                lastSentNanos[0] = now;
+            }
+        };
+    }
+
+    /**
+     * 按结果缓存策略执行：未设置 resultCacheTtl 或未启用缓存时直接执行
+     */
+    private String execute(String payload, Duration resultCacheTtl, TaskProgress resumeFrom,
+                           Consumer<TaskProgress> heartbeat) {
+        if (resultCache == null || resultCacheTtl == null || resultCacheTtl.isNegative() || resultCacheTtl.isZero()) {
+            return doBusinessLogic(payload, resumeFrom, heartbeat);
+        }
+        int completed = resumeFrom == null || resumeFrom.getCompleted() == null ? 0 : resumeFrom.getCompleted();
+        // 等待期间保持心跳，避免心跳超时；进度沿用上次心跳，重试时不丢失
+        return resultCache.get(payload, resultCacheTtl, () -> doBusinessLogic(payload, resumeFrom, heartbeat),
+                () -> heartbeat.accept(new TaskProgress(completed, TOTAL_STEPS, "等待相同任务的结果",
+                        System.currentTimeMillis())));
+    }
+
+    /**
+     * @param resumeFrom 上次心跳的进度，首次执行为 null
+     * @param heartbeat  上报进度，Activity 已取消时抛出 {@link ActivityCompletionException}
+     */
+    private String doBusinessLogic(String payload, TaskProgress resumeFrom, Consumer<TaskProgress> heartbeat) {
+        int completed = resumeFrom == null || resumeFrom.getCompleted() == null ? 0 : resumeFrom.getCompleted();
+        if (completed > 0) {
+            log.info("Worker 收到任务: {}, 从第 {}/{} 步继续", payload, completed, TOTAL_STEPS);
+        } else {
+            log.info("Worker 收到任务: {}", payload);
+        }
+        while (completed < TOTAL_STEPS) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(STEP_TIME.toMillis());
+            } catch (InterruptedException e) {
+                // Worker 停机超时被中断：以失败结束 (retryCount 大于 1 时由服务端重试)，而不是上报一个未完成的结果
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("任务被中断", e);
+            }
+            completed++;
+            heartbeat.accept(new TaskProgress(completed, TOTAL_STEPS, "处理中", System.currentTimeMillis()));
         }
         return "任务结果: " + System.currentTimeMillis();
     }
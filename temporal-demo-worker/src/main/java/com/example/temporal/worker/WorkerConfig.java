@@ -0,0 +1,497 @@
+package com.example.temporal.worker;
+
+import com.example.temporal.codec.ClaimCheckPayloadCodec;
+import com.example.temporal.codec.CompressionPayloadCodec;
+import com.example.temporal.codec.LocalFileBlobStore;
+import com.example.temporal.codec.ModelBinaryPayloadConverter;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkerOptions;
+import io.temporal.worker.tuning.ResourceBasedControllerOptions;
+import io.temporal.worker.tuning.ResourceBasedSlotOptions;
+import io.temporal.worker.tuning.ResourceBasedTuner;
+import io.temporal.worker.tuning.WorkerTuner;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Worker参数配置
+ * <p>
+ * 加载顺序（后者覆盖前者）：classpath 下的 worker.properties -> -Dworker.config 指定的外部文件 -> -D 系统属性。
+ * 每个队列的参数先取 worker.defaults.*，再用 worker.queue.&lt;队列名&gt;.* 覆盖；
+ * SYNC 快速通道队列在两者之间多一层 worker.sync-lane.*。
+ *
+ * @author 0xNPC
+ */
+@Slf4j
+public class WorkerConfig {
+
+    private static final String CLASSPATH_FILE = "worker.properties";
+
+    private static final String EXTERNAL_FILE_KEY = "worker.config";
+
+    private static final String DEFAULTS_PREFIX = "worker.defaults.";
+
+    private static final String QUEUE_PREFIX = "worker.queue.";
+
+    private static final String FACTORY_PREFIX = "worker.factory.";
+
+    private static final String SYNC_LANE_PREFIX = "worker.sync-lane.";
+
+    private static final String TUNER_PREFIX = "worker.tuner.";
+
+    private final Properties properties;
+
+    private WorkerConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    public static WorkerConfig load() {
+        Properties properties = new Properties();
+        try (InputStream in = WorkerConfig.class.getClassLoader().getResourceAsStream(CLASSPATH_FILE)) {
+            if (in != null) {
+                properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+            String externalFile = System.getProperty(EXTERNAL_FILE_KEY);
+            if (externalFile != null) {
+                try (Reader reader = Files.newBufferedReader(Path.of(externalFile), StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+                log.info("已加载外部 Worker 配置: {}", externalFile);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Worker 配置加载失败", e);
+        }
+        System.getProperties().forEach((key, value) -> {
+            String name = key.toString();
+            if (name.startsWith("temporal.") || name.startsWith("worker.")) {
+                properties.setProperty(name, value.toString());
+            }
+        });
+        return new WorkerConfig(properties);
+    }
+
+    /**
+     * Temporal Frontend 地址
+     */
+    public String getFrontendAddress() {
+        return properties.getProperty("temporal.frontend-address", "127.0.0.1:7233");
+    }
+
+    /**
+     * 本进程需要监听的任务队列 (Region)
+     */
+    public List<String> getTaskQueues() {
+        return Arrays.stream(properties.getProperty("worker.task-queues", "queue-beijing").split(","))
+                .map(String::trim)
+                .filter(queue -> !queue.isEmpty())
+                .toList();
+    }
+
+    /**
+     * TaskActivity 是否使用异步完成模式（立即释放 Activity 槽位，业务完成后凭 TaskToken 上报结果）
+     */
+    public boolean isTaskActivityAsyncCompletion() {
+        return Boolean.parseBoolean(properties.getProperty("worker.task-activity.async-completion", "false").trim());
+    }
+
+    /**
+     * 异步完成模式下，单个 Worker 进程同时进行中的 TaskActivity 上限
+     */
+    public int getTaskActivityMaxAsyncInFlight() {
+        return Integer.parseInt(properties.getProperty("worker.task-activity.max-async-in-flight", "1000").trim());
+    }
+
+    /**
+     * TaskActivity 结果缓存的最大条目数，0 表示不缓存；任务需在 TaskArgs.resultCacheTtl 中开启
+     */
+    public long getResultCacheMaxSize() {
+        return Long.parseLong(properties.getProperty("worker.result-cache.max-size", "10000").trim());
+    }
+
+    /**
+     * Payload 压缩编解码，参数需与 Server 端 temporal.codec.* 保持一致
+     */
+    public CompressionPayloadCodec newCompressionPayloadCodec() {
+        return new CompressionPayloadCodec(
+                Boolean.parseBoolean(properties.getProperty("temporal.codec.compression-enabled", "false").trim()),
+                Integer.parseInt(properties.getProperty("temporal.codec.compression-threshold-bytes", "4096").trim()),
+                Double.parseDouble(properties.getProperty("temporal.codec.compression-max-ratio", "0.9").trim()),
+                Integer.parseInt(properties.getProperty("temporal.codec.compression-level", "1").trim()));
+    }
+
+    /**
+     * Claim-check 编解码，开关、阈值与存储目录需与 Server 端 temporal.codec.claim-check-* 保持一致
+     */
+    public ClaimCheckPayloadCodec newClaimCheckPayloadCodec() {
+        return new ClaimCheckPayloadCodec(
+                Boolean.parseBoolean(properties.getProperty("temporal.codec.claim-check-enabled", "false").trim()),
+                Integer.parseInt(properties.getProperty("temporal.codec.claim-check-threshold-bytes", "262144").trim()),
+                parseDataSize(properties.getProperty("temporal.codec.claim-check-cache-size", "64MB")),
+                new LocalFileBlobStore(Path.of(properties.getProperty("temporal.codec.claim-check-dir",
+                        System.getProperty("java.io.tmpdir") + "/temporal-demo-blobs").trim())));
+    }
+
+    /**
+     * 模型类二进制转换器，开关需与 Server 端 temporal.codec.binary-model-enabled 保持一致
+     */
+    public ModelBinaryPayloadConverter newModelBinaryPayloadConverter() {
+        return new ModelBinaryPayloadConverter(
+                Boolean.parseBoolean(properties.getProperty("temporal.codec.binary-model-enabled", "false").trim()));
+    }
+
+    /**
+     * Prometheus 指标端口 (GET /metrics)，0 表示不暴露指标
+     */
+    public int getMetricsPort() {
+        return Integer.parseInt(properties.getProperty("worker.metrics.port", "9464").trim());
+    }
+
+    /**
+     * SDK 指标从 tally 刷新到 Micrometer 的间隔
+     */
+    public Duration getMetricsReportInterval() {
+        return Duration.ofSeconds(Long.parseLong(properties.getProperty("worker.metrics.report-interval-seconds", "10").trim()));
+    }
+
+    /**
+     * 停机宽限期：停止轮询后等待进行中任务完成的最长时间，需小于编排系统的强杀等待时间
+     */
+    public Duration getDrainTimeout() {
+        return Duration.ofSeconds(Long.parseLong(properties.getProperty("worker.drain.timeout-seconds", "30").trim()));
+    }
+
+    /**
+     * 进程级 WorkerFactory 参数 (Workflow 缓存与 Workflow 线程)，所有队列共享
+     */
+    public FactoryConfig getFactoryConfig() {
+        FactoryConfig config = new FactoryConfig();
+        config.setVirtualWorkflowThreads(Boolean.parseBoolean(
+                properties.getProperty(FACTORY_PREFIX + "virtual-workflow-threads", "false").trim()));
+        config.setWorkflowCacheSize(Integer.parseInt(
+                properties.getProperty(FACTORY_PREFIX + "workflow-cache-size", "0").trim()));
+        config.setMaxWorkflowThreadCount(Integer.parseInt(
+                properties.getProperty(FACTORY_PREFIX + "max-workflow-thread-count", "0").trim()));
+        return config;
+    }
+
+    /**
+     * 进程级槽位调节参数，开启后 Region 队列的 Workflow/Activity 槽位按 CPU 与堆内存占用动态发放
+     */
+    public TunerConfig getTunerConfig() {
+        TunerConfig config = new TunerConfig();
+        config.setResourceBased(Boolean.parseBoolean(
+                properties.getProperty(TUNER_PREFIX + "resource-based", "false").trim()));
+        config.setTargetMemoryUsage(Double.parseDouble(
+                properties.getProperty(TUNER_PREFIX + "target-memory-usage", "0.8").trim()));
+        config.setTargetCpuUsage(Double.parseDouble(
+                properties.getProperty(TUNER_PREFIX + "target-cpu-usage", "0.9").trim()));
+        config.setActivityMinSlots(Integer.parseInt(
+                properties.getProperty(TUNER_PREFIX + "activity-min-slots", "1").trim()));
+        config.setActivityMaxSlots(Integer.parseInt(
+                properties.getProperty(TUNER_PREFIX + "activity-max-slots", "1000").trim()));
+        config.setActivityRampThrottle(Duration.ofMillis(Long.parseLong(
+                properties.getProperty(TUNER_PREFIX + "activity-ramp-throttle-millis", "50").trim())));
+        config.setWorkflowMinSlots(Integer.parseInt(
+                properties.getProperty(TUNER_PREFIX + "workflow-min-slots", "5").trim()));
+        config.setWorkflowMaxSlots(Integer.parseInt(
+                properties.getProperty(TUNER_PREFIX + "workflow-max-slots", "500").trim()));
+        config.setWorkflowRampThrottle(Duration.ofMillis(Long.parseLong(
+                properties.getProperty(TUNER_PREFIX + "workflow-ramp-throttle-millis", "0").trim())));
+        return config;
+    }
+
+    /**
+     * SYNC 快速通道队列后缀，需与 Server 端 temporal.dispatch.sync-lane-suffix 一致，为空 (默认) 表示不启用
+     */
+    public String getSyncLaneSuffix() {
+        return properties.getProperty(SYNC_LANE_PREFIX + "suffix", "").trim();
+    }
+
+    /**
+     * 指定队列的 Worker 参数
+     */
+    public QueueConfig getQueueConfig(String taskQueue) {
+        return getQueueConfig(taskQueue, DEFAULTS_PREFIX);
+    }
+
+    /**
+     * SYNC 快速通道队列的 Worker 参数，未按队列覆盖的参数先取 worker.sync-lane.*，再取 worker.defaults.*
+     *
+     * @param laneQueue 快速通道队列名 (Region 队列 + 后缀)
+     */
+    public QueueConfig getSyncLaneQueueConfig(String laneQueue) {
+        return getQueueConfig(laneQueue, SYNC_LANE_PREFIX);
+    }
+
+    private QueueConfig getQueueConfig(String taskQueue, String defaults) {
+        QueueConfig config = new QueueConfig();
+        config.setTaskQueue(taskQueue);
+        config.setMaxConcurrentActivityExecutions(getInt(taskQueue, defaults, "max-concurrent-activity-executions", 0));
+        config.setMaxConcurrentWorkflowTaskExecutions(getInt(taskQueue, defaults, "max-concurrent-workflow-task-executions", 0));
+        config.setMaxConcurrentLocalActivityExecutions(getInt(taskQueue, defaults, "max-concurrent-local-activity-executions", 0));
+        config.setMaxConcurrentActivityTaskPollers(getInt(taskQueue, defaults, "max-concurrent-activity-task-pollers", 0));
+        config.setMaxConcurrentWorkflowTaskPollers(getInt(taskQueue, defaults, "max-concurrent-workflow-task-pollers", 0));
+        config.setMaxWorkerActivitiesPerSecond(getDouble(taskQueue, defaults, "max-worker-activities-per-second", 0));
+        double maxTaskQueueActivitiesPerSecond = getDouble(taskQueue, defaults, "max-task-queue-activities-per-second", 0);
+        config.setMaxTaskQueueActivitiesPerSecond(maxTaskQueueActivitiesPerSecond > 0
+                ? maxTaskQueueActivitiesPerSecond : getAdmissionTaskQueueActivitiesPerSecond(taskQueue));
+        config.setVirtualThreadActivities(Boolean.parseBoolean(get(taskQueue, defaults, "virtual-thread-activities", "false")));
+        return config;
+    }
+
+    /**
+     * 与 Server 共用的准入配置 temporal.admission.regions.&lt;队列名&gt;.task-queue-activities-per-second，
+     * 未配置时取 temporal.admission.defaults.*；worker.* 中配置了大于 0 的值时优先
+     */
+    private double getAdmissionTaskQueueActivitiesPerSecond(String taskQueue) {
+        String value = properties.getProperty("temporal.admission.regions." + taskQueue + ".task-queue-activities-per-second");
+        if (value == null) {
+            value = properties.getProperty("temporal.admission.defaults.task-queue-activities-per-second", "0");
+        }
+        return Double.parseDouble(value.trim());
+    }
+
+    private String get(String taskQueue, String defaults, String key, String defaultValue) {
+        String value = properties.getProperty(QUEUE_PREFIX + taskQueue + "." + key);
+        if (value == null) {
+            value = properties.getProperty(defaults + key);
+        }
+        if (value == null) {
+            value = properties.getProperty(DEFAULTS_PREFIX + key, defaultValue);
+        }
+        return value.trim();
+    }
+
+    /**
+     * 解析与 Spring DataSize 相同格式的大小 (如 64MB、512KB、1GB，纯数字为字节)，使 Worker 与 Server 可共用同一配置值
+     */
+    private static long parseDataSize(String value) {
+        String text = value.trim().toUpperCase(Locale.ROOT);
+        long unit = 1;
+        if (text.endsWith("KB")) {
+            unit = 1L << 10;
+        } else if (text.endsWith("MB")) {
+            unit = 1L << 20;
+        } else if (text.endsWith("GB")) {
+            unit = 1L << 30;
+        } else if (text.endsWith("TB")) {
+            unit = 1L << 40;
+        }
+        if (unit > 1) {
+            text = text.substring(0, text.length() - 2);
+        } else if (text.endsWith("B")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        try {
+            return Math.multiplyExact(Long.parseLong(text.trim()), unit);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("无法解析的大小: " + value, e);
+        }
+    }
+
+    private int getInt(String taskQueue, String defaults, String key, int defaultValue) {
+        return Integer.parseInt(get(taskQueue, defaults, key, String.valueOf(defaultValue)));
+    }
+
+    private double getDouble(String taskQueue, String defaults, String key, double defaultValue) {
+        return Double.parseDouble(get(taskQueue, defaults, key, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * WorkerFactory 参数，数值为 0 表示使用 SDK 默认值 (均为 600)
+     * <p>
+     * 缓存中的每个 Workflow 在等待 Activity 等期间都占用一个 Workflow 线程；平台线程下缓存容量受
+     * maxWorkflowThreadCount 限制，线程不足时 SDK 会强制驱逐缓存，后续 Workflow Task 需要重放历史。
+     * 虚拟线程下不再受线程数限制 (maxWorkflowThreadCount 被忽略)，缓存容量主要取决于堆内存。
+     */
+    @Data
+    public static class FactoryConfig {
+
+        /**
+         * Workflow 线程是否使用虚拟线程 (JDK 21+)
+         */
+        private boolean virtualWorkflowThreads;
+
+        /**
+         * sticky 缓存可容纳的 Workflow 执行数
+         */
+        private int workflowCacheSize;
+
+        /**
+         * Workflow 线程上限，仅平台线程下生效，应不小于 workflowCacheSize
+         */
+        private int maxWorkflowThreadCount;
+
+        public WorkerFactoryOptions toWorkerFactoryOptions() {
+            WorkerFactoryOptions.Builder builder = WorkerFactoryOptions.newBuilder()
+                    .setUsingVirtualWorkflowThreads(virtualWorkflowThreads);
+            if (workflowCacheSize > 0) {
+                builder.setWorkflowCacheSize(workflowCacheSize);
+            }
+            if (maxWorkflowThreadCount > 0) {
+                builder.setMaxWorkflowThreadCount(maxWorkflowThreadCount);
+            }
+            return builder.build();
+        }
+
+    }
+
+    /**
+     * 槽位调节参数，默认值与 SDK 的 ResourceBasedTuner 一致
+     * <p>
+     * 固定槽位数在大机器上用不满、在 Payload 变大时又可能耗尽堆内存。开启 resourceBased 后，
+     * SDK 按 CPU (整机) 与堆内存 (已用 / 最大堆，含未回收的垃圾) 的 PID 控制决定是否发放新槽位：
+     * 两者都低于目标时在 [min, max] 之间每隔 rampThrottle 发放一个，任一超过目标即停止发放，
+     * 已占用的槽位随任务完成释放，从而在内存压力下回落。调大 rampThrottle 可降低爬升速度，
+     * 适合启动时不立即占用内存的任务。同一进程内的队列共享一个调节器，即共享同一份资源目标。
+     */
+    @Data
+    public static class TunerConfig {
+
+        /**
+         * 是否按资源占用发放槽位，false 时使用各队列的 max-concurrent-*-executions 固定槽位
+         */
+        private boolean resourceBased;
+
+        /**
+         * 堆内存占用目标 (0~1)
+         */
+        private double targetMemoryUsage;
+
+        /**
+         * CPU 占用目标 (0~1)
+         */
+        private double targetCpuUsage;
+
+        /**
+         * 无论资源占用如何都会发放的 Activity 槽位数
+         */
+        private int activityMinSlots;
+
+        private int activityMaxSlots;
+
+        /**
+         * 超过最小槽位后，两次发放 Activity 槽位的最小间隔
+         */
+        private Duration activityRampThrottle;
+
+        private int workflowMinSlots;
+
+        private int workflowMaxSlots;
+
+        private Duration workflowRampThrottle;
+
+        /**
+         * @return 调节器，未开启时返回 null
+         */
+        public WorkerTuner toWorkerTuner() {
+            if (!resourceBased) {
+                return null;
+            }
+            return ResourceBasedTuner.newBuilder()
+                    .setControllerOptions(ResourceBasedControllerOptions.newBuilder(targetMemoryUsage, targetCpuUsage)
+                            .build())
+                    .setActivitySlotOptions(ResourceBasedSlotOptions.newBuilder()
+                            .setMinimumSlots(activityMinSlots)
+                            .setMaximumSlots(activityMaxSlots)
+                            .setRampThrottle(activityRampThrottle)
+                            .build())
+                    .setWorkflowSlotOptions(ResourceBasedSlotOptions.newBuilder()
+                            .setMinimumSlots(workflowMinSlots)
+                            .setMaximumSlots(workflowMaxSlots)
+                            .setRampThrottle(workflowRampThrottle)
+                            .build())
+                    .build();
+        }
+
+    }
+
+    /**
+     * 单个任务队列的 Worker 参数，数值为 0 表示使用 SDK 默认值（或不限速）
+     */
+    @Data
+    public static class QueueConfig {
+
+        private String taskQueue;
+
+        /**
+         * 同时执行的 Activity 数（Activity 槽位）
+         */
+        private int maxConcurrentActivityExecutions;
+
+        /**
+         * 同时执行的 Workflow Task 数
+         */
+        private int maxConcurrentWorkflowTaskExecutions;
+
+        /**
+         * 同时执行的 Local Activity 数
+         */
+        private int maxConcurrentLocalActivityExecutions;
+
+        /**
+         * Activity Task 长轮询并发数
+         */
+        private int maxConcurrentActivityTaskPollers;
+
+        /**
+         * Workflow Task 长轮询并发数
+         */
+        private int maxConcurrentWorkflowTaskPollers;
+
+        /**
+         * 本 Worker 每秒最多启动的 Activity 数
+         */
+        private double maxWorkerActivitiesPerSecond;
+
+        /**
+         * 整个任务队列（所有 Worker 共享，由服务端限流）每秒最多派发的 Activity 数
+         */
+        private double maxTaskQueueActivitiesPerSecond;
+
+        /**
+         * Activity 是否运行在虚拟线程上，适合 TaskActivityImpl 这类阻塞型任务
+         */
+        private boolean virtualThreadActivities;
+
+        public WorkerOptions toWorkerOptions() {
+            return toWorkerOptions(null);
+        }
+
+        /**
+         * @param tuner 槽位调节器，不为空时忽略固定槽位数 (SDK 不允许两者同时设置)
+         */
+        public WorkerOptions toWorkerOptions(WorkerTuner tuner) {
+            WorkerOptions.Builder builder = WorkerOptions.newBuilder();
+            if (tuner != null) {
+                builder.setWorkerTuner(tuner);
+            } else {
+                builder.setMaxConcurrentActivityExecutionSize(maxConcurrentActivityExecutions)
+                        .setMaxConcurrentWorkflowTaskExecutionSize(maxConcurrentWorkflowTaskExecutions)
+                        .setMaxConcurrentLocalActivityExecutionSize(maxConcurrentLocalActivityExecutions);
+            }
+            return builder
+                    .setMaxConcurrentActivityTaskPollers(maxConcurrentActivityTaskPollers)
+                    .setMaxConcurrentWorkflowTaskPollers(maxConcurrentWorkflowTaskPollers)
+                    .setMaxWorkerActivitiesPerSecond(maxWorkerActivitiesPerSecond)
+                    .setMaxTaskQueueActivitiesPerSecond(maxTaskQueueActivitiesPerSecond)
+                    .setUsingVirtualThreadsOnActivityWorker(virtualThreadActivities)
+                    .build();
+        }
+
+    }
+
+}
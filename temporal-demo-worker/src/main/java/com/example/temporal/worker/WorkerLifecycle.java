@@ -0,0 +1,119 @@
+package com.example.temporal.worker;
+
+import com.example.temporal.task.TaskActivityImpl;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.temporal.worker.WorkerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Worker 生命周期：启动、优雅停机 (drain) 与健康检查
+ * <p>
+ * 停机时先把就绪状态置为 DRAINING，再停止轮询，等待已领取的 Workflow/Activity 任务 (含异步完成中的任务)
+ * 在宽限期内完成；超时仍未完成的任务 (含异步完成执行器上的任务) 被中断并立即以失败上报，不必等到 start-to-close 超时：
+ * TaskArgs.retryCount 大于 1 时由服务端重试，默认 (1，不重试) 时 Workflow 随之失败。
+ * <ul>
+ *     <li>GET /health/live：进程未停止即返回 200，drain 期间保持存活，避免编排系统提前强杀</li>
+ *     <li>GET /health/ready：仅 RUNNING 时返回 200，drain 开始后返回 503</li>
+ * </ul>
+ *
+ * @author 0xNPC
+ */
+@Slf4j
+public class WorkerLifecycle {
+
+    public enum State {
+        STARTING, RUNNING, DRAINING, STOPPED
+    }
+
+    /**
+     * shutdownNow 后等待 Worker 线程退出、被中断的异步任务上报失败的时间
+     */
+    private static final Duration FORCE_STOP_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WorkerFactory factory;
+
+    private final TaskActivityImpl taskActivity;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.STARTING);
+
+    public WorkerLifecycle(WorkerFactory factory, TaskActivityImpl taskActivity) {
+        this.factory = factory;
+        this.taskActivity = taskActivity;
+    }
+
+    public void start() {
+        factory.start();
+        state.set(State.RUNNING);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * 优雅停机，重复调用只执行一次
+     *
+     * @param timeout 宽限期，超过后中断仍在执行的任务
+     * @return 是否在宽限期内全部完成
+     */
+    public boolean drain(Duration timeout) {
+        if (!state.compareAndSet(State.RUNNING, State.DRAINING)
+                && !state.compareAndSet(State.STARTING, State.DRAINING)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        log.info("Worker 开始停机: 停止轮询，等待进行中的任务完成，宽限期 {}", timeout);
+        boolean drained = false;
+        try {
+            factory.shutdown();
+            factory.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            drained = factory.isTerminated()
+                    && taskActivity.awaitInFlight(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!drained) {
+            log.warn("Worker 宽限期内未完成全部任务，中断剩余任务");
+            factory.shutdownNow();
+            try {
+                // 返回前等待异步任务上报失败，调用方随后才关闭与 Temporal 的连接
+                if (!taskActivity.interruptInFlight(FORCE_STOP_TIMEOUT)) {
+                    log.warn("部分异步任务未能及时上报失败，将等到心跳或 start-to-close 超时");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            factory.awaitTermination(FORCE_STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        state.set(State.STOPPED);
+        log.info("Worker 已停止, 全部完成={}, 耗时={}ms", drained,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deadline + timeout.toNanos()));
+        return drained;
+    }
+
+    public HttpHandler liveHandler() {
+        return exchange -> respond(exchange, state.get() != State.STOPPED);
+    }
+
+    public HttpHandler readyHandler() {
+        return exchange -> respond(exchange, state.get() == State.RUNNING);
+    }
+
+    private void respond(HttpExchange exchange, boolean ok) throws IOException {
+        byte[] body = state.get().name().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(ok ? 200 : 503, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}
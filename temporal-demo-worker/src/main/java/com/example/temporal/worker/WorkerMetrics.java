@@ -0,0 +1,128 @@
+package com.example.temporal.worker;
+
+import com.example.temporal.metrics.MetricsScopes;
+import com.example.temporal.task.ResultCache;
+import com.example.temporal.task.ResultCacheStats;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.uber.m3.tally.Scope;
+import com.uber.m3.tally.ScopeCloseException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Worker 进程指标：Temporal SDK 指标 + JVM/GC 指标，以 Prometheus 格式暴露在 GET /metrics
+ *
+ * @author 0xNPC
+ */
+@Slf4j
+public class WorkerMetrics implements AutoCloseable {
+
+    private final PrometheusMeterRegistry registry;
+
+    private final Scope sdkScope;
+
+    private final JvmGcMetrics jvmGcMetrics;
+
+    private final HttpServer httpServer;
+
+    public WorkerMetrics(WorkerConfig config) {
+        this.registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().commonTags("application", "temporal-worker");
+        new ClassLoaderMetrics().bindTo(registry);
+        new JvmMemoryMetrics().bindTo(registry);
+        this.jvmGcMetrics = new JvmGcMetrics();
+        jvmGcMetrics.bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        new UptimeMetrics().bindTo(registry);
+        this.sdkScope = MetricsScopes.newScope(registry, config.getMetricsReportInterval());
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(config.getMetricsPort()), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Worker 指标端口启动失败: " + config.getMetricsPort(), e);
+        }
+        httpServer.createContext("/metrics", exchange -> {
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.start();
+        log.info("Worker 指标已暴露: http://0.0.0.0:{}/metrics", config.getMetricsPort());
+    }
+
+    /**
+     * 设置到 WorkflowServiceStubsOptions 的 SDK 指标 Scope
+     */
+    public Scope getSdkScope() {
+        return sdkScope;
+    }
+
+    public PrometheusMeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 在指标端口上注册其它端点 (健康检查等)
+     */
+    public void addHandler(String path, HttpHandler handler) {
+        httpServer.createContext(path, handler);
+    }
+
+    /**
+     * 暴露 TaskActivity 结果缓存的命中情况，独立 Worker 与 Server 内嵌 Worker 共用
+     * <p>
+     * temporal.result_cache.requests{result=hit|miss|coalesced}：miss 为实际执行次数，hit + coalesced 即省下的执行
+     */
+    public static void bindResultCache(MeterRegistry registry, ResultCache resultCache) {
+        resultCacheCounter(registry, resultCache, "hit", ResultCacheStats::getHits);
+        resultCacheCounter(registry, resultCache, "miss", ResultCacheStats::getMisses);
+        resultCacheCounter(registry, resultCache, "coalesced", ResultCacheStats::getCoalesced);
+        Gauge.builder("temporal.result_cache.size", resultCache, c -> c.stats().getSize())
+                .description("TaskActivity 结果缓存的条目数")
+                .register(registry);
+    }
+
+    private static void resultCacheCounter(MeterRegistry registry, ResultCache resultCache, String result,
+                                           ToDoubleFunction<ResultCacheStats> value) {
+        FunctionCounter.builder("temporal.result_cache.requests", resultCache, c -> value.applyAsDouble(c.stats()))
+                .description("TaskActivity 结果缓存请求数")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        try {
+            // 关闭时刷出最后一批 SDK 指标
+            sdkScope.close();
+        } catch (ScopeCloseException e) {
+            log.warn("SDK 指标 Scope 关闭失败", e);
+        }
+        jvmGcMetrics.close();
+        registry.close();
+    }
+
+}
@@ -1,19 +1,30 @@
 package com.example.temporal.worker;
 
-import com.example.temporal.common.TaskWorkflowImpl;
+import com.example.temporal.codec.DataConverters;
+import com.example.temporal.common.BatchTaskWorkflowImpl;
+import com.example.temporal.common.PingSessionWorkflowImpl;
 import com.example.temporal.common.PingWorkflowImpl;
+import com.example.temporal.common.TaskActivity;
+import com.example.temporal.common.TaskWorkflowImpl;
 import com.example.temporal.task.PingActivityImpl;
+import com.example.temporal.task.ResultCache;
 import com.example.temporal.task.TaskActivityImpl;
 import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.converter.DataConverter;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
 import io.temporal.worker.Worker;
 import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.tuning.WorkerTuner;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.net.ssl.SSLException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Worker启动类
@@ -24,38 +35,120 @@ import javax.net.ssl.SSLException;
 public class WorkerStarter {
 
     public static void main(String[] args) throws SSLException {
-        String temporalAddress = "temporal-frontend.local.ht:443";
+        WorkerConfig config = WorkerConfig.load();
+        String temporalAddress = config.getFrontendAddress();
 
         // 1. 配置连接到公网/专线上的 Temporal Server
-        WorkflowServiceStubs service = WorkflowServiceStubs.newServiceStubs(
-                WorkflowServiceStubsOptions.newBuilder()
-                        // Temporal Server 地址
-                        .setTarget(temporalAddress)
-                        // 自签名证书，使用非验证模式
-                        .setSslContext(GrpcSslContexts.forClient()
-                                .trustManager(InsecureTrustManagerFactory.INSTANCE)
-                                .build()
-                        )
-                        .build());
-        WorkflowClient client = WorkflowClient.newInstance(service);
-        WorkerFactory factory = WorkerFactory.newInstance(client);
-
-        // 2. 关键：指定该 Worker 属于哪个区域 (Queue Name)
-        // 比如部署在北京机房，就叫 "queue-beijing"
-        Worker worker = factory.newWorker("queue-beijing");
-
-        // 3. 注册实现类
+        WorkflowServiceStubsOptions.Builder stubsOptions = WorkflowServiceStubsOptions.newBuilder()
+                // Temporal Server 地址
+                .setTarget(temporalAddress)
+                // 自签名证书，使用非验证模式
+                .setSslContext(GrpcSslContexts.forClient()
+                        .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                        .build()
+                );
+        // SDK 指标 (槽位、轮询、schedule-to-start、sticky 缓存) 与 JVM 指标
+        WorkerMetrics metrics = config.getMetricsPort() > 0 ? new WorkerMetrics(config) : null;
+        if (metrics != null) {
+            stubsOptions.setMetricsScope(metrics.getSdkScope());
+        }
+        WorkflowServiceStubs service = WorkflowServiceStubs.newServiceStubs(stubsOptions.build());
+        // Payload 编解码需与 Server 保持一致；编码从列表末尾开始，先压缩再转存
+        DataConverter dataConverter = DataConverters.newDataConverter(config.newModelBinaryPayloadConverter(),
+                List.of(config.newClaimCheckPayloadCodec(), config.newCompressionPayloadCodec()));
+        WorkflowClient client = WorkflowClient.newInstance(service, WorkflowClientOptions.newBuilder()
+                .setDataConverter(dataConverter)
+                .build());
+        WorkerConfig.FactoryConfig factoryConfig = config.getFactoryConfig();
+        WorkerFactory factory = WorkerFactory.newInstance(client, factoryConfig.toWorkerFactoryOptions());
+        log.info("WorkerFactory 已创建: {}", factoryConfig);
+
+        // TaskActivity 实例在所有队列间共享，异步完成模式下的并发上限是进程级的
+        TaskActivityImpl taskActivity = newTaskActivity(config, client);
+        if (metrics != null && taskActivity.getResultCache() != null) {
+            WorkerMetrics.bindResultCache(metrics.getRegistry(), taskActivity.getResultCache());
+        }
+
+        // 按资源占用发放槽位时，所有 Region 队列共享一个调节器；快速通道保持固定槽位，内存压力下 Ping 仍可执行
+        WorkerConfig.TunerConfig tunerConfig = config.getTunerConfig();
+        WorkerTuner tuner = tunerConfig.toWorkerTuner();
+        if (tuner != null) {
+            log.info("槽位按资源占用调节: {}", tunerConfig);
+        }
+
+        // 2. 关键：指定该 Worker 属于哪些区域 (Queue Name)
+        // 比如部署在北京机房，就叫 "queue-beijing"；每个队列独立配置槽位、轮询数与限速
+        for (String taskQueue : config.getTaskQueues()) {
+            WorkerConfig.QueueConfig queueConfig = config.getQueueConfig(taskQueue);
+            Worker worker = factory.newWorker(taskQueue, queueConfig.toWorkerOptions(tuner));
+
+            // 3. 注册实现类
+            registerImplementations(worker, taskActivity);
+            log.info("Worker 已创建: {}", queueConfig);
+
+            // SYNC 快速通道：独立的 Poller 与槽位，Ping 不会排在长任务后面
+            if (!config.getSyncLaneSuffix().isEmpty()) {
+                WorkerConfig.QueueConfig laneConfig = config.getSyncLaneQueueConfig(taskQueue + config.getSyncLaneSuffix());
+                registerSyncLaneImplementations(factory.newWorker(laneConfig.getTaskQueue(), laneConfig.toWorkerOptions()));
+                log.info("Worker 快速通道已创建: {}", laneConfig);
+            }
+        }
+
+        // 4. 启动；停机 (SIGTERM) 时先停止轮询并在宽限期内等待进行中的任务完成，避免任务被遗弃到超时
+        WorkerLifecycle lifecycle = new WorkerLifecycle(factory, taskActivity);
+        if (metrics != null) {
+            metrics.addHandler("/health/live", lifecycle.liveHandler());
+            metrics.addHandler("/health/ready", lifecycle.readyHandler());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            lifecycle.drain(config.getDrainTimeout());
+            service.shutdown();
+            if (metrics != null) {
+                metrics.close();
+            }
+        }, "worker-drain"));
+        lifecycle.start();
+        log.info("Worker 已启动，监听队列 {}，等待任务...", config.getTaskQueues());
+    }
+
+    /**
+     * 按配置创建 TaskActivity 实现（同步完成或异步完成模式）
+     */
+    public static TaskActivityImpl newTaskActivity(WorkerConfig config, WorkflowClient client) {
+        ResultCache resultCache = config.getResultCacheMaxSize() > 0
+                ? new ResultCache(config.getResultCacheMaxSize()) : null;
+        if (!config.isTaskActivityAsyncCompletion()) {
+            return new TaskActivityImpl(resultCache);
+        }
+        ExecutorService taskExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("task-activity-", 0).factory());
+        log.info("TaskActivity 使用异步完成模式，最大并发 {}", config.getTaskActivityMaxAsyncInFlight());
+        return new TaskActivityImpl(client.newActivityCompletionClient(), taskExecutor,
+                config.getTaskActivityMaxAsyncInFlight(), resultCache);
+    }
+
+    /**
+     * 注册全部 Workflow 与 Activity 实现，独立 Worker 与 Server 内嵌 Worker 共用
+     */
+    public static void registerImplementations(Worker worker, TaskActivity taskActivity) {
         // 负责编排，控制任务，不做具体任务的执行
         // 注意: 也可以设计到独立的worker中进行部署，不与执行的worker合并部署
         worker.registerWorkflowImplementationTypes(TaskWorkflowImpl.class);
         worker.registerWorkflowImplementationTypes(PingWorkflowImpl.class);
+        worker.registerWorkflowImplementationTypes(PingSessionWorkflowImpl.class);
+        worker.registerWorkflowImplementationTypes(BatchTaskWorkflowImpl.class);
         // 负责具体任务的最终执行
-        worker.registerActivitiesImplementations(new TaskActivityImpl());
+        worker.registerActivitiesImplementations(taskActivity);
         worker.registerActivitiesImplementations(new PingActivityImpl());
+    }
 
-        // 4. 启动
-        factory.start();
-        log.info("北京区域 Worker 已启动，等待任务...");
+    /**
+     * 注册 SYNC 快速通道的实现：只处理 Ping，长任务不会进入该队列
+     */
+    public static void registerSyncLaneImplementations(Worker worker) {
+        worker.registerWorkflowImplementationTypes(PingWorkflowImpl.class);
+        worker.registerWorkflowImplementationTypes(PingSessionWorkflowImpl.class);
+        worker.registerActivitiesImplementations(new PingActivityImpl());
     }
 
 }
@@ -0,0 +1,224 @@
+package com.example.temporal.worker;
+
+import com.example.temporal.common.TaskActivity;
+import com.example.temporal.common.TaskWorkflow;
+import com.example.temporal.common.TaskWorkflowImpl;
+import com.example.temporal.model.TaskArgs;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按资源调节槽位 (worker.tuner.* 默认值) 在 CPU 与内存密集负载下的表现
+ * <p>
+ * 先形成积压再启动 Worker，每个 Activity 消耗 10ms CPU 后在 2 秒内逐步分配并持有 1/64 最大堆；
+ * 固定 200 个槽位时所需堆内存约为最大堆的 3 倍。surefire 以 -Xmx256m 运行，使内存成为约束。
+ * 跳过 warmup 后每 100ms 采样一次，断言：没有 OOM、有余量时槽位爬升到最小槽位以上、
+ * GC 后的堆占用始终不超过目标、整机 CPU 平均不超过目标。
+ * <p>
+ * 不断言已用堆 (含未回收的垃圾) 低于目标：它在 GC 前会短时超过目标，槽位调节无法控制，见 README 槽位调节一节。
+ *
+ * @author 0xNPC
+ */
+class ResourceBasedTunerTest {
+
+    private static final String TASK_QUEUE = "queue-tuner-test";
+
+    private static final int TASKS = 500;
+
+    private static final Duration DURATION = Duration.ofSeconds(20);
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(100);
+
+    @Test
+    void holdsHeapAndCpuTargetsUnderHeavyLoad() throws Exception {
+        WorkerConfig.TunerConfig tunerConfig = WorkerConfig.load().getTunerConfig();
+        tunerConfig.setResourceBased(true);
+        WorkerConfig.QueueConfig queueConfig = new WorkerConfig.QueueConfig();
+        queueConfig.setTaskQueue(TASK_QUEUE);
+        HeavyActivity activity = new HeavyActivity(Runtime.getRuntime().maxMemory() / 64);
+
+        TestWorkflowEnvironment testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setUseTimeskipping(false)
+                .build());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        Samples samples = new Samples();
+        try {
+            Worker worker = testEnv.newWorker(TASK_QUEUE, queueConfig.toWorkerOptions(tunerConfig.toWorkerTuner()));
+            worker.registerWorkflowImplementationTypes(TaskWorkflowImpl.class);
+            worker.registerActivitiesImplementations(activity);
+            startBacklog(testEnv.getWorkflowClient());
+            System.gc();
+
+            com.sun.management.OperatingSystemMXBean os =
+                    ManagementFactory.getPlatformMXBean(com.sun.management.OperatingSystemMXBean.class);
+            long startNanos = System.nanoTime();
+            sampler.scheduleAtFixedRate(() -> {
+                if (System.nanoTime() - startNanos >= WARMUP.toNanos()) {
+                    samples.add(activity.running.get(), heapAfterGc(), Math.max(0, os.getCpuLoad()));
+                }
+            }, 0, SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+            testEnv.start();
+            TimeUnit.NANOSECONDS.sleep(DURATION.toNanos());
+        } finally {
+            sampler.shutdownNow();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+            testEnv.close();
+        }
+
+        assertEquals(0, activity.oom.sum(), "OOM");
+        assertTrue(activity.completed.sum() > 0, "没有完成的任务");
+        assertTrue(samples.maxSlots >= 10 * tunerConfig.getActivityMinSlots(),
+                "槽位没有爬升: max=" + samples.maxSlots);
+        assertTrue(samples.maxHeapAfterGc <= tunerConfig.getTargetMemoryUsage(),
+                "GC 后堆占用超过目标: max=" + samples.maxHeapAfterGc);
+        assertTrue(samples.avgCpu() <= tunerConfig.getTargetCpuUsage(), "CPU 超过目标: avg=" + samples.avgCpu());
+    }
+
+    private static void startBacklog(WorkflowClient client) {
+        TaskArgs taskArgs = TaskArgs.builder()
+                .executionTimeout(Duration.ofMinutes(10))
+                .retryCount(1)
+                .heartbeatTimeout(Duration.ZERO)
+                .build();
+        for (int i = 0; i < TASKS; i++) {
+            TaskWorkflow workflow = client.newWorkflowStub(TaskWorkflow.class, WorkflowOptions.newBuilder()
+                    .setTaskQueue(TASK_QUEUE)
+                    .setWorkflowId("tuner-" + i)
+                    .build());
+            WorkflowClient.start(workflow::executeTask, "heavy-" + i, taskArgs);
+        }
+    }
+
+    /**
+     * 最近一次 GC 结束时的堆占用 (已用 / 最大堆)，不含 GC 前累积的垃圾
+     */
+    private static double heapAfterGc() {
+        com.sun.management.GcInfo last = null;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            com.sun.management.GcInfo info = ((com.sun.management.GarbageCollectorMXBean) collector).getLastGcInfo();
+            if (info != null && (last == null || info.getEndTime() > last.getEndTime())) {
+                last = info;
+            }
+        }
+        if (last == null) {
+            return 0;
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = last.getMemoryUsageAfterGc().get(pool.getName());
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return (double) used / Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * 持有内存并消耗 CPU 的 Activity
+     */
+    private static class HeavyActivity implements TaskActivity {
+
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        private static final int MEMORY_CHUNKS = 16;
+
+        private static final Duration CPU_TIME = Duration.ofMillis(10);
+
+        private static final Duration HOLD_TIME = Duration.ofSeconds(2);
+
+        private final long memoryPerTask;
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final LongAdder completed = new LongAdder();
+
+        private final LongAdder oom = new LongAdder();
+
+        HeavyActivity(long memoryPerTask) {
+            this.memoryPerTask = memoryPerTask;
+        }
+
+        @Override
+        public String runBusinessLogic(String payload, TaskArgs taskArgs) {
+            running.incrementAndGet();
+            try {
+                long cpuDeadline = THREADS.getCurrentThreadCpuTime() + CPU_TIME.toNanos();
+                long checksum = 0;
+                while (THREADS.getCurrentThreadCpuTime() < cpuDeadline) {
+                    checksum = checksum * 31 + System.nanoTime();
+                }
+                byte[][] chunks = new byte[MEMORY_CHUNKS][];
+                for (int i = 0; i < MEMORY_CHUNKS; i++) {
+                    try {
+                        chunks[i] = new byte[(int) (memoryPerTask / MEMORY_CHUNKS)];
+                    } catch (OutOfMemoryError e) {
+                        oom.increment();
+                        throw ApplicationFailure.newNonRetryableFailure("堆内存不足", "OutOfMemory");
+                    }
+                    chunks[i][0] = (byte) checksum;
+                    TimeUnit.NANOSECONDS.sleep(HOLD_TIME.toNanos() / MEMORY_CHUNKS);
+                }
+                Reference.reachabilityFence(chunks);
+                completed.increment();
+                return payload + ":" + checksum;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("任务被中断", e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+    }
+
+    /**
+     * 采样统计，只由采样线程写入
+     */
+    private static class Samples {
+
+        private int count;
+
+        private int maxSlots;
+
+        private double maxHeapAfterGc;
+
+        private double cpuSum;
+
+        synchronized void add(int slots, double heapAfterGc, double cpu) {
+            count++;
+            maxSlots = Math.max(maxSlots, slots);
+            maxHeapAfterGc = Math.max(maxHeapAfterGc, heapAfterGc);
+            cpuSum += cpu;
+        }
+
+        synchronized double avgCpu() {
+            return count == 0 ? 0 : cpuSum / count;
+        }
+
+    }
+
+}